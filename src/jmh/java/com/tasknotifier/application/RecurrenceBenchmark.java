@@ -0,0 +1,35 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.bench.SyntheticTasks;
+import com.tasknotifier.domain.Task;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** One operation rolls every recurring task of the dataset forward by one occurrence. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RecurrenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final RecurrenceService service = new RecurrenceService();
+    private List<Task> recurring;
+
+    @Setup
+    public void setUp() {
+        recurring = SyntheticTasks.generate(size).stream().filter(t -> t.getRecurrenceRule().isRecurring()).toList();
+    }
+
+    @Benchmark
+    public void nextOccurrence(Blackhole blackhole) {
+        for (Task task : recurring) blackhole.consume(service.nextOccurrence(task.getDueDateTime(), task.getRecurrenceRule()));
+    }
+}
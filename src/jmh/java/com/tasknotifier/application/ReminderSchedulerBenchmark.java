@@ -0,0 +1,62 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.bench.SyntheticTasks;
+import org.openjdk.jmh.annotations.*;
+
+import com.tasknotifier.domain.Task;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures a scheduler wake-up that fires the overdue backlog. Due dates are spread around a fixed clock, so
+ * about half the reminders are due. Polling empties the index, so each invocation gets a fresh store and
+ * scheduler over the same tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReminderSchedulerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final AtomicLong notifications = new AtomicLong();
+    private final Clock clock = Clock.fixed(SyntheticTasks.BASE.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    private List<Task> tasks;
+    private ReminderScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        tasks = SyntheticTasks.numbered(SyntheticTasks.generate(size));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        TaskStore store = new TaskStore(SyntheticTasks.repository(tasks));
+        scheduler = new ReminderScheduler(store, (title, message) -> notifications.incrementAndGet(), new NoopLedger(), clock);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Benchmark
+    public long check() {
+        scheduler.check();
+        return notifications.get();
+    }
+
+    private static final class NoopLedger implements ReminderLedger {
+        @Override public List<Entry> findAll() { return List.of(); }
+        @Override public void recordAll(List<Entry> entries) { }
+        @Override public void evict(long taskId) { }
+    }
+}
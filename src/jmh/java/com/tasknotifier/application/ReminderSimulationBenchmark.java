@@ -0,0 +1,49 @@
+package com.tasknotifier.application;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One operation replays 30 days of reminders for the 200 tasks of {@code ReminderSimulationTest}, across the
+ * spring DST change. Divide 30 by the score in seconds for simulated days per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReminderSimulationBenchmark {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private Path markdownDir;
+
+    @Setup
+    public void setUp() throws IOException {
+        markdownDir = Files.createTempDirectory("tasknotifier-simulation");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(markdownDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public long replayMonth() {
+        ReminderSimulation simulation = new ReminderSimulation(LocalDateTime.of(2026, 3, 1, 8, 0).atZone(NEW_YORK).toInstant(),
+                NEW_YORK, 200, 42, markdownDir);
+        return simulation.run(Duration.ofDays(30)).reminders();
+    }
+}
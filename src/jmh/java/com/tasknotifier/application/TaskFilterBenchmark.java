@@ -0,0 +1,74 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.bench.SyntheticTasks;
+import com.tasknotifier.domain.Priority;
+import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TaskFilter} over task lists against the bitmap index of a {@link CompactTaskSet} on the same
+ * queries. The indexed variants return rows; building tasks for them is measured in
+ * {@link TaskFootprintBenchmark#viewPage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskFilterBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final TaskFilter filter = new TaskFilter();
+    private List<Task> tasks;
+    private CompactTaskSet compact;
+    private TaskQuery openThisWeekForTag;
+    private TaskQuery textSearch;
+    private TaskQuery highPriorityForTag;
+
+    @Setup
+    public void setUp() {
+        tasks = SyntheticTasks.numbered(SyntheticTasks.generate(size));
+        compact = CompactTaskSet.of(tasks);
+        highPriorityForTag = TaskQuery.builder().priority(Priority.HIGH).tag("work").build();
+        openThisWeekForTag = TaskQuery.builder().status(TaskStatus.TODO).tag("work")
+                .dueFrom(SyntheticTasks.BASE.toLocalDate()).dueTo(SyntheticTasks.BASE.toLocalDate().plusDays(7)).build();
+        textSearch = TaskQuery.builder().text("report").sort(TaskQuery.Sort.TITLE).build();
+    }
+
+    @Benchmark
+    public List<Task> statusTagAndDueRange() {
+        return filter.filter(tasks, openThisWeekForTag);
+    }
+
+    @Benchmark
+    public int[] indexedStatusTagAndDueRange() {
+        return compact.rows(openThisWeekForTag);
+    }
+
+    @Benchmark
+    public List<Task> priorityAndTag() {
+        return filter.filter(tasks, highPriorityForTag);
+    }
+
+    @Benchmark
+    public int[] indexedPriorityAndTag() {
+        return compact.rows(highPriorityForTag);
+    }
+
+    @Benchmark
+    public FacetCounts facetCounts() {
+        return compact.facets(highPriorityForTag);
+    }
+
+    @Benchmark
+    public List<Task> substringSearch() {
+        return filter.filter(tasks, textSearch);
+    }
+}
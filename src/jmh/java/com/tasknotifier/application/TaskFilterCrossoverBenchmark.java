@@ -0,0 +1,54 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.bench.SyntheticTasks;
+import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link TaskFilter} with the parallel path forced on and off over growing lists. The list size
+ * where {@code parallel} starts to win is the crossover that {@link TaskFilter#PARALLEL_THRESHOLD} should
+ * sit at. That size depends on the core count, so run this on the target hardware.
+ * {@code firstPage} asks for one screen of rows, which takes the top-K path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskFilterCrossoverBenchmark {
+
+    @Param({"1000", "10000", "50000", "100000", "500000"})
+    public int size;
+
+    @Param({"sequential", "parallel"})
+    public String mode;
+
+    private TaskFilter filter;
+    private List<Task> tasks;
+    private TaskQuery allOpen;
+    private TaskQuery firstPage;
+
+    @Setup
+    public void setUp() {
+        filter = new TaskFilter(Clock.systemDefaultZone(), mode.equals("parallel") ? 0 : Integer.MAX_VALUE);
+        tasks = SyntheticTasks.numbered(SyntheticTasks.generate(size));
+        allOpen = TaskQuery.builder().status(TaskStatus.TODO).sort(TaskQuery.Sort.DUE_ASC).build();
+        firstPage = allOpen.toBuilder().limit(50).build();
+    }
+
+    @Benchmark
+    public List<Task> fullSort() {
+        return filter.filter(tasks, allOpen);
+    }
+
+    @Benchmark
+    public List<Task> firstPage() {
+        return filter.filter(tasks, firstPage);
+    }
+}
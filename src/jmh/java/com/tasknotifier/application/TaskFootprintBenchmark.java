@@ -0,0 +1,96 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.bench.SyntheticTasks;
+import com.tasknotifier.domain.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the heap cost of holding the working set as {@link Task} graphs in an id map, which is what
+ * {@link TaskStore} kept before, with a {@link CompactTaskSet}. Each operation builds one whole set and
+ * reports the heap it retains as the {@code retainedBytesPerTask} secondary result, measured after a full
+ * GC. JMH sums that counter over iterations, so keep the single measurement iteration. Both sides share
+ * the text strings of the source tasks, so the figures leave text out.
+ * {@code viewPage} measures the cost of building the tasks for one screen of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:+UseSerialGC"})
+public class TaskFootprintBenchmark {
+
+    private static final int PAGE = 50;
+
+    // A thousand tasks is below what a heap reading can resolve.
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private List<Task> tasks;
+    private CompactTaskSet compact;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = SyntheticTasks.numbered(SyntheticTasks.generate(size));
+        compact = CompactTaskSet.of(tasks);
+    }
+
+    @Benchmark
+    public Map<Long, Task> taskGraph(Footprint footprint) {
+        long before = usedHeap();
+        // Views are full, unshared Task graphs, as rows read from SQLite would be.
+        Map<Long, Task> byId = new HashMap<>();
+        for (int row = 0; row < compact.size(); row++) {
+            Task task = compact.task(row);
+            byId.put(task.getId(), task);
+        }
+        footprint.record(usedHeap() - before, size);
+        return byId;
+    }
+
+    @Benchmark
+    public CompactTaskSet compactSet(Footprint footprint) {
+        long before = usedHeap();
+        CompactTaskSet set = CompactTaskSet.of(tasks);
+        footprint.record(usedHeap() - before, size);
+        return set;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public List<Task> viewPage() {
+        int[] rows = new int[Math.min(PAGE, compact.size())];
+        for (int i = 0; i < rows.length; i++) rows[i] = compact.size() / 2 + i - rows.length / 2;
+        return compact.tasks(rows);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double retainedBytesPerTask;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytesPerTask = 0;
+        }
+
+        void record(long bytes, int tasks) {
+            retainedBytesPerTask = (double) bytes / tasks;
+        }
+    }
+}
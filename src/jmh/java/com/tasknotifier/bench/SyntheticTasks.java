@@ -0,0 +1,184 @@
+package com.tasknotifier.bench;
+
+import com.tasknotifier.application.TaskFilter;
+import com.tasknotifier.application.TaskQuery;
+import com.tasknotifier.application.TaskRepository;
+import com.tasknotifier.domain.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Deterministic task datasets for benchmarks. The same size, base time and seed always give the same tasks.
+ * About 10% are undated and 20% recur. Due dates spread over 60 days either side of the base. Tags are drawn
+ * with a skew, so a few are common and most are rare, as in real lists.
+ */
+public final class SyntheticTasks {
+
+    public static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 5, 9, 0);
+    public static final long SEED = 42;
+
+    private static final String[] TAGS = {
+            "work", "home", "errand", "urgent", "finance", "health", "reading", "travel", "family", "garden",
+            "car", "school", "taxes", "music", "sport", "kitchen", "phone", "gift", "repair", "admin"};
+    private static final String[] WORDS = {
+            "call", "write", "report", "review", "plan", "book", "pay", "renew", "order", "clean",
+            "draft", "email", "prepare", "fix", "check", "meeting", "invoice", "notes", "budget", "trip"};
+    private static final String[] RRULES = {
+            "FREQ=MONTHLY;BYDAY=2TU", "FREQ=WEEKLY;BYDAY=MO,WE,FR", "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1"};
+
+    private SyntheticTasks() {
+    }
+
+    public static List<Task> generate(int size) {
+        return generate(size, BASE, SEED);
+    }
+
+    /** Tasks without ids, ready to be inserted. */
+    public static List<Task> generate(int size, LocalDateTime base, long seed) {
+        Random random = new Random(seed);
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime due = random.nextInt(10) == 0 ? null
+                    : base.plusMinutes(random.nextInt(120 * 24 * 60) - 60 * 24 * 60).withSecond(0);
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String summary = random.nextInt(3) == 0 ? "" : WORDS[random.nextInt(WORDS.length)] + " before the " + WORDS[random.nextInt(WORDS.length)];
+            Set<String> tags = new LinkedHashSet<>();
+            for (int t = random.nextInt(4); t > 0; t--) {
+                double skewed = random.nextDouble();
+                tags.add(TAGS[(int) (skewed * skewed * TAGS.length)]);
+            }
+            tasks.add(new Task(null, title, summary, due,
+                    Priority.values()[random.nextInt(Priority.values().length)],
+                    status(random),
+                    List.copyOf(tags),
+                    "task-detail/synthetic-" + i + ".md",
+                    due == null ? RecurrenceRule.none() : rule(random, due),
+                    new ReminderSettings(random.nextInt(5) != 0, 15 * random.nextInt(5), 60, false),
+                    base.minusMinutes(random.nextInt(90 * 24 * 60))));
+        }
+        return tasks;
+    }
+
+    /** Assigns ids 1..n in list order, for datasets that never touch a database. */
+    public static List<Task> numbered(List<Task> tasks) {
+        long id = 1;
+        for (Task task : tasks) task.setId(id++);
+        return tasks;
+    }
+
+    /** A list-backed repository over a numbered dataset, for building a TaskStore without SQLite. */
+    public static TaskRepository repository(List<Task> tasks) {
+        return new ListRepository(tasks);
+    }
+
+    private static TaskStatus status(Random random) {
+        int roll = random.nextInt(10);
+        if (roll < 6) return TaskStatus.TODO;
+        if (roll < 8) return TaskStatus.IN_PROGRESS;
+        return roll < 9 ? TaskStatus.DONE : TaskStatus.ARCHIVED;
+    }
+
+    private static RecurrenceRule rule(Random random, LocalDateTime due) {
+        int roll = random.nextInt(50);
+        if (roll >= 10) return RecurrenceRule.none();
+        Set<LocalDate> skipped = new HashSet<>();
+        if (roll % 3 == 0) skipped.add(due.toLocalDate().plusWeeks(1 + random.nextInt(4)));
+        LocalDate end = roll % 4 == 0 ? due.toLocalDate().plusYears(1) : null;
+        if (roll == 9) return RecurrenceRule.custom(RRULES[random.nextInt(RRULES.length)], end, skipped).withAnchor(due);
+        RecurrenceType type = new RecurrenceType[]{RecurrenceType.DAILY, RecurrenceType.WEEKLY, RecurrenceType.MONTHLY}[roll % 3];
+        return new RecurrenceRule(type, end, skipped, due);
+    }
+
+    private static final class ListRepository implements TaskRepository {
+        private final TaskFilter filter = new TaskFilter();
+        private final Map<Long, Task> byId = new LinkedHashMap<>();
+        private long nextId = 1;
+
+        ListRepository(List<Task> tasks) {
+            tasks.forEach(this::save);
+        }
+
+        @Override
+        public synchronized Task save(Task task) {
+            if (task.getId() == null) task.setId(nextId);
+            nextId = Math.max(nextId, task.getId() + 1);
+            byId.put(task.getId(), task);
+            return task;
+        }
+
+        @Override
+        public synchronized List<Task> saveAll(List<Task> all) {
+            all.forEach(this::save);
+            return all;
+        }
+
+        @Override
+        public synchronized List<Task> findAll() {
+            return new ArrayList<>(byId.values());
+        }
+
+        @Override
+        public List<Task> query(TaskQuery query) {
+            return filter.filter(findAll(), query);
+        }
+
+        @Override
+        public synchronized Optional<Task> findById(long id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        @Override
+        public synchronized void deleteById(long id) {
+            byId.remove(id);
+        }
+
+        @Override
+        public synchronized int deleteAllById(Collection<Long> ids) {
+            int deleted = 0;
+            for (long id : ids) if (byId.remove(id) != null) deleted++;
+            return deleted;
+        }
+
+        @Override
+        public synchronized int updateStatusAll(Collection<Long> ids, TaskStatus status, LocalDateTime updatedAt) {
+            int updated = 0;
+            for (long id : ids) {
+                Task task = byId.get(id);
+                if (task == null) continue;
+                task.setStatus(status);
+                task.setUpdatedAt(updatedAt);
+                updated++;
+            }
+            return updated;
+        }
+
+        @Override
+        public synchronized Map<String, Long> tagCounts() {
+            Map<String, Long> counts = new HashMap<>();
+            for (Task task : byId.values()) task.getTags().forEach(tag -> counts.merge(tag, 1L, Long::sum));
+            Map<String, Long> sorted = new LinkedHashMap<>();
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+            return sorted;
+        }
+
+        @Override
+        public synchronized int renameTag(String from, String to) {
+            int renamed = 0;
+            for (Task task : byId.values()) {
+                if (task.getTags().stream().noneMatch(tag -> tag.equalsIgnoreCase(from))) continue;
+                Set<String> tags = new LinkedHashSet<>();
+                for (String tag : task.getTags()) {
+                    String next = tag.equalsIgnoreCase(from) ? to : tag;
+                    if (tags.stream().noneMatch(next::equalsIgnoreCase)) tags.add(next);
+                }
+                task.setTags(List.copyOf(tags));
+                renamed++;
+            }
+            return renamed;
+        }
+    }
+}
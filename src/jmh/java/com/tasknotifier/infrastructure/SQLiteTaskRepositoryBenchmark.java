@@ -0,0 +1,57 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.bench.SyntheticTasks;
+import com.tasknotifier.domain.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SQLiteTaskRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path dbPath;
+    private DatabaseManager db;
+    private SQLiteTaskRepository repository;
+    private List<Task> saved;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbPath = Files.createTempFile("tasknotifier-bench", ".db");
+        db = new DatabaseManager(dbPath);
+        db.migrate();
+        repository = new SQLiteTaskRepository(db);
+        saved = repository.saveAll(SyntheticTasks.generate(size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        Files.deleteIfExists(dbPath);
+    }
+
+    @Benchmark
+    public List<Task> findAll() {
+        return repository.findAll();
+    }
+
+    /** Updates one existing task per operation, cycling through the dataset. */
+    @Benchmark
+    public Task save() {
+        Task task = saved.get(next++ % saved.size());
+        task.setUpdatedAt(LocalDateTime.now());
+        return repository.save(task);
+    }
+}
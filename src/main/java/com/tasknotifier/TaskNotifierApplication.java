@@ -3,6 +3,7 @@ package com.tasknotifier;
 import atlantafx.base.theme.PrimerLight;
 import com.tasknotifier.application.*;
 import com.tasknotifier.infrastructure.*;
+import com.tasknotifier.ui.FxThreadProbe;
 import com.tasknotifier.ui.MainController;
 import com.tasknotifier.ui.MainViewModel;
 import javafx.application.Application;
@@ -14,10 +15,20 @@ import javafx.stage.StageStyle;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 
 public class TaskNotifierApplication extends Application {
 
     private ReminderScheduler scheduler;
+    private MainViewModel viewModel;
+    private NotificationDispatcher dispatcher;
+    private DatabaseManager db;
+    private MarkdownSearchIndexer searchIndexer;
+    private MarkdownFileIndex fileIndex;
+    private DashboardCounters dashboard;
+    private OccurrenceMaterializer occurrences;
+    private JmxMetricsExporter metricsExporter;
+    private FxThreadProbe fxProbe;
 
     @Override
     public void start(Stage stage) throws Exception {
@@ -28,17 +39,38 @@ public class TaskNotifierApplication extends Application {
         UiStateStore uiStateStore = new UiStateStore();
         UiStateStore.UiState savedUiState = uiStateStore.load(taskDetailDir);
 
-        DatabaseManager db = new DatabaseManager(AppPaths.databaseFile());
+        metricsExporter = new JmxMetricsExporter(MetricsRegistry.global());
+        metricsExporter.start();
+        fxProbe = new FxThreadProbe(MetricsRegistry.global());
+        fxProbe.start();
+
+        db = new DatabaseManager(AppPaths.databaseFile());
         db.migrate();
-        TaskRepository repository = new SQLiteTaskRepository(db);
+        TaskStore store = new TaskStore(new MeteredTaskRepository(new SQLiteTaskRepository(db), MetricsRegistry.global()));
+        searchIndexer = new MarkdownSearchIndexer(db);
+        searchIndexer.start();
         RecurrenceService recurrenceService = new RecurrenceService();
-        TaskService taskService = new TaskService(repository, recurrenceService);
+        TaskService taskService = new TaskService(store, recurrenceService);
+        fileIndex = new MarkdownFileIndex(taskDetailDir);
+        fileIndex.addChangeListener(searchIndexer::filesChanged);
+        store.addChangeListener(fileIndex);
+        fileIndex.start(store.findAll());
         NotificationService inApp = new InAppNotificationService();
         NotificationService notificationService = new WindowsTrayNotificationBridge(inApp);
-        scheduler = new ReminderScheduler(taskService, notificationService);
+        Duration latenessBudget = Duration.parse(System.getProperty("tasknotifier.reminderLatenessBudget", "PT5S"));
+        dispatcher = new NotificationDispatcher(notificationService, NotificationDispatcher.Settings.defaults(),
+                new ReminderPunctuality(latenessBudget, MetricsRegistry.global()));
+        dispatcher.start();
+        scheduler = new ReminderScheduler(store, dispatcher, new SQLiteReminderLedger(db));
         scheduler.start();
 
-        MainViewModel viewModel = new MainViewModel(taskService, recurrenceService, scheduler);
+        dashboard = new DashboardCounters(store);
+        dashboard.start();
+        occurrences = new OccurrenceMaterializer(new SQLiteOccurrenceRepository(db), recurrenceService.engine());
+        occurrences.start(store);
+        dashboard.addRolloverListener(occurrences::refresh);
+
+        viewModel = new MainViewModel(taskService, store, dashboard, occurrences, recurrenceService, scheduler, fileIndex);
 
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/ui/main-view.fxml"));
         Parent root = loader.load();
@@ -59,7 +91,16 @@ public class TaskNotifierApplication extends Application {
 
     @Override
     public void stop() {
+        if (viewModel != null) viewModel.shutdown();
         if (scheduler != null) scheduler.stop();
+        if (dashboard != null) dashboard.stop();
+        if (occurrences != null) occurrences.stop();
+        if (dispatcher != null) dispatcher.stop();
+        if (fileIndex != null) fileIndex.stop();
+        if (searchIndexer != null) searchIndexer.stop();
+        if (db != null) db.close();
+        if (fxProbe != null) fxProbe.stop();
+        if (metricsExporter != null) metricsExporter.stop();
     }
 
     public static void main(String[] args) {
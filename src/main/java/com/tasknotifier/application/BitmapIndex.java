@@ -0,0 +1,146 @@
+package com.tasknotifier.application;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Row bitmaps for a {@link CompactTaskSet}: one per status, per priority and per tag id. Each bitmap is a
+ * plain {@code long[]} of words, and words past its end count as zero. Status, priority and tag criteria
+ * reduce to word-wise AND and OR, and facet counts are popcounts over the same words. Published instances
+ * are never changed. An {@link Updater} copies only the bitmaps it writes to.
+ */
+final class BitmapIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final long[][] byStatus;
+    private final long[][] byPriority;
+    private final long[][] byTag;
+
+    private BitmapIndex(long[][] byStatus, long[][] byPriority, long[][] byTag) {
+        this.byStatus = byStatus;
+        this.byPriority = byPriority;
+        this.byTag = byTag;
+    }
+
+    static BitmapIndex empty(int statuses, int priorities) {
+        long[][] status = new long[statuses][];
+        long[][] priority = new long[priorities][];
+        Arrays.fill(status, NONE);
+        Arrays.fill(priority, NONE);
+        return new BitmapIndex(status, priority, new long[0][]);
+    }
+
+    long[] status(int ordinal) {
+        return byStatus[ordinal];
+    }
+
+    long[] priority(int ordinal) {
+        return byPriority[ordinal];
+    }
+
+    long[] tag(int id) {
+        return id < byTag.length ? byTag[id] : NONE;
+    }
+
+    int tagSlots() {
+        return byTag.length;
+    }
+
+    /** Rows having any of the given tag ids. */
+    long[] anyTag(int[] tagIds, int rows) {
+        long[] union = new long[words(rows)];
+        for (int id : tagIds) {
+            long[] bits = tag(id);
+            for (int w = 0; w < Math.min(bits.length, union.length); w++) union[w] |= bits[w];
+        }
+        return union;
+    }
+
+    Updater updater() {
+        return new Updater(this);
+    }
+
+    static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /** Every row below {@code rows}. */
+    static long[] all(int rows) {
+        long[] bits = new long[words(rows)];
+        Arrays.fill(bits, -1L);
+        if ((rows & 63) != 0) bits[bits.length - 1] = -1L >>> (64 - (rows & 63));
+        return bits;
+    }
+
+    /** Clears every bit of {@code target} that is not also set in {@code mask}. */
+    static void and(long[] target, long[] mask) {
+        int shared = Math.min(target.length, mask.length);
+        for (int w = 0; w < shared; w++) target[w] &= mask[w];
+        Arrays.fill(target, shared, target.length, 0L);
+    }
+
+    static int andCardinality(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < Math.min(a.length, b.length); w++) count += Long.bitCount(a[w] & b[w]);
+        return count;
+    }
+
+    /** Collects changes on copies of the bitmaps it touches; the source index is left as it was. */
+    static final class Updater {
+        private final long[][] byStatus;
+        private final long[][] byPriority;
+        private long[][] byTag;
+        private final Set<long[]> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Updater(BitmapIndex source) {
+            byStatus = source.byStatus.clone();
+            byPriority = source.byPriority.clone();
+            byTag = source.byTag.clone();
+        }
+
+        void add(int row, int status, int priority, int[] tagIds, int tagFrom, int tagTo) {
+            set(row, status, priority, tagIds, tagFrom, tagTo, true);
+        }
+
+        void remove(int row, int status, int priority, int[] tagIds, int tagFrom, int tagTo) {
+            set(row, status, priority, tagIds, tagFrom, tagTo, false);
+        }
+
+        BitmapIndex build() {
+            return new BitmapIndex(byStatus, byPriority, byTag);
+        }
+
+        private void set(int row, int status, int priority, int[] tagIds, int tagFrom, int tagTo, boolean value) {
+            byStatus[status] = flip(byStatus[status], row, value);
+            byPriority[priority] = flip(byPriority[priority], row, value);
+            for (int i = tagFrom; i < tagTo; i++) {
+                int id = tagIds[i];
+                if (id >= byTag.length) {
+                    int length = byTag.length;
+                    byTag = Arrays.copyOf(byTag, Math.max(id + 1, length * 2));
+                    Arrays.fill(byTag, length, byTag.length, NONE);
+                }
+                byTag[id] = flip(byTag[id], row, value);
+            }
+        }
+
+        private long[] flip(long[] bits, int row, boolean value) {
+            int word = row >>> 6;
+            if (!value && word >= bits.length) return bits;
+            if (word >= bits.length) {
+                // Appends arrive in row order, so leave room for the next ones.
+                bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length + (bits.length >> 1)));
+                owned.add(bits);
+            } else if (!owned.contains(bits)) {
+                bits = bits.clone();
+                owned.add(bits);
+            }
+            if (value) bits[word] |= 1L << row;
+            else bits[word] &= ~(1L << row);
+            return bits;
+        }
+    }
+}
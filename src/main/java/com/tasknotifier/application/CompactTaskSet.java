@@ -0,0 +1,376 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.*;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Tasks stored by column rather than as object graphs. Rows are kept in id order. Times are epoch seconds
+ * plus a nano-of-second column, so they read back exactly. Priority and status are ordinals, tags are ids
+ * from a shared {@link TagDictionary}, and reminder settings are packed into one long. Only recurring rows
+ * hold a {@link RecurrenceRule}. Text fields share the caller's strings. A {@link BitmapIndex} over status,
+ * priority and tags answers {@link #rows} and {@link #facets} without visiting every row.
+ *
+ * <p>{@link Task} objects are built on demand, and each call returns a new one the caller may change.
+ * Instances are immutable, so readers need no locking; {@link #with} returns an updated copy.
+ */
+public final class CompactTaskSet {
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final TagDictionary dictionary;
+    private final int size;
+    private final long[] ids;
+    private final String[] titles;
+    private final String[] summaries;
+    private final String[] markdownPaths;
+    private final long[] dueSeconds;
+    private final int[] dueNanos;
+    private final long[] updatedSeconds;
+    private final int[] updatedNanos;
+    private final byte[] priorities;
+    private final byte[] statuses;
+    private final long[] reminders;
+    // Row r's tag ids are tagIds[tagStart[r]] up to tagIds[tagStart[r + 1]].
+    private final int[] tagStart;
+    private final int[] tagIds;
+    private final RecurrenceRule[] rules;
+    private final BitmapIndex index;
+
+    private CompactTaskSet(Columns columns, BitmapIndex index) {
+        dictionary = columns.dictionary;
+        size = columns.rows;
+        ids = columns.ids;
+        titles = columns.titles;
+        summaries = columns.summaries;
+        markdownPaths = columns.markdownPaths;
+        dueSeconds = columns.dueSeconds;
+        dueNanos = columns.dueNanos;
+        updatedSeconds = columns.updatedSeconds;
+        updatedNanos = columns.updatedNanos;
+        priorities = columns.priorities;
+        statuses = columns.statuses;
+        reminders = columns.reminders;
+        tagStart = columns.tagStart;
+        tagIds = columns.tagIds;
+        rules = columns.rules;
+        this.index = index;
+    }
+
+    public static CompactTaskSet of(List<Task> tasks) {
+        return of(tasks, new TagDictionary());
+    }
+
+    /** Every task must have an id, and ids must be unique. */
+    public static CompactTaskSet of(List<Task> tasks, TagDictionary dictionary) {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort((a, b) -> Long.compare(idOf(a), idOf(b)));
+        int tagCount = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            if (i > 0 && sorted.get(i).getId().equals(sorted.get(i - 1).getId())) {
+                throw new IllegalArgumentException("Duplicate task id " + sorted.get(i).getId());
+            }
+            tagCount += sorted.get(i).getTags().size();
+        }
+        Columns columns = new Columns(dictionary, sorted.size(), tagCount);
+        sorted.forEach(columns::add);
+        return new CompactTaskSet(columns, columns.index(BitmapIndex.empty(STATUSES.length, PRIORITIES.length).updater()));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TagDictionary dictionary() {
+        return dictionary;
+    }
+
+    /** The row holding {@code id}, or -1. */
+    public int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -1 : row;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public Optional<Task> findById(long id) {
+        int row = rowOf(id);
+        return row < 0 ? Optional.empty() : Optional.of(task(row));
+    }
+
+    public Task task(int row) {
+        List<String> tags = new ArrayList<>(tagStart[row + 1] - tagStart[row]);
+        for (int i = tagStart[row]; i < tagStart[row + 1]; i++) tags.add(dictionary.name(tagIds[i]));
+        RecurrenceRule rule = rules[row];
+        long packed = reminders[row];
+        return new Task(ids[row], titles[row], summaries[row],
+                dueSeconds[row] == NO_DATE ? null : LocalDateTime.ofEpochSecond(dueSeconds[row], dueNanos[row], ZoneOffset.UTC),
+                PRIORITIES[priorities[row]], STATUSES[statuses[row]], tags, markdownPaths[row],
+                rule == null ? RecurrenceRule.none()
+                        : new RecurrenceRule(rule.type(), rule.endDate(), new HashSet<>(rule.skippedDates()), rule.anchor(), rule.rrule()),
+                new ReminderSettings((packed & 1) != 0, (int) (packed >>> 33), (int) (packed >>> 2) & Integer.MAX_VALUE, (packed & 2) != 0),
+                LocalDateTime.ofEpochSecond(updatedSeconds[row], updatedNanos[row], ZoneOffset.UTC));
+    }
+
+    public List<Task> tasks() {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) tasks.add(task(row));
+        return tasks;
+    }
+
+    public List<Task> tasks(int[] rows) {
+        List<Task> tasks = new ArrayList<>(rows.length);
+        for (int row : rows) tasks.add(task(row));
+        return tasks;
+    }
+
+    /**
+     * Rows that pass the query's id, status, priority, tag and due-range criteria, with the same meaning as
+     * {@link TaskFilter}. Text, sort order, offset and limit are left to the caller.
+     */
+    public int[] rows(TaskQuery query) {
+        long[] candidates = BitmapIndex.all(size);
+        if (query.status() != null) BitmapIndex.and(candidates, index.status(query.status().ordinal()));
+        if (query.priority() != null) BitmapIndex.and(candidates, index.priority(query.priority().ordinal()));
+        if (query.tag() != null) BitmapIndex.and(candidates, index.anyTag(dictionary.idsIgnoringCase(query.tag()), size));
+        DueRange due = new DueRange(query);
+        int[] matches = new int[Math.min(size, 1024)];
+        int count = 0;
+        for (int w = 0; w < candidates.length; w++) {
+            for (long bits = candidates[w]; bits != 0; bits &= bits - 1) {
+                int row = w << 6 | Long.numberOfTrailingZeros(bits);
+                if (!due.accepts(row)) continue;
+                if (count == matches.length) matches = Arrays.copyOf(matches, count * 2);
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * How many rows each status, priority and tag would match if it were chosen next, given the query's
+     * other criteria. Each facet leaves out its own criterion, so the counts show the alternatives to the
+     * current choice. Text is ignored. Tags with no matching row are left out.
+     */
+    public FacetCounts facets(TaskQuery query) {
+        long[] status = query.status() == null ? null : index.status(query.status().ordinal());
+        long[] priority = query.priority() == null ? null : index.priority(query.priority().ordinal());
+        long[] tag = query.tag() == null ? null : index.anyTag(dictionary.idsIgnoringCase(query.tag()), size);
+        long[] due = null;
+        if (query.ids() != null || query.dueFrom() != null || query.dueTo() != null) {
+            DueRange range = new DueRange(query);
+            due = new long[BitmapIndex.words(size)];
+            for (int row = 0; row < size; row++) {
+                if (range.accepts(row)) due[row >>> 6] |= 1L << row;
+            }
+        }
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        long[] base = intersect(priority, tag, due);
+        for (TaskStatus value : STATUSES) byStatus.put(value, (long) BitmapIndex.andCardinality(base, index.status(value.ordinal())));
+        Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+        base = intersect(status, tag, due);
+        for (Priority value : PRIORITIES) byPriority.put(value, (long) BitmapIndex.andCardinality(base, index.priority(value.ordinal())));
+        Map<String, Long> byTag = new HashMap<>();
+        base = intersect(status, priority, due);
+        for (int id = 0; id < index.tagSlots(); id++) {
+            int count = BitmapIndex.andCardinality(base, index.tag(id));
+            if (count > 0) byTag.put(dictionary.name(id), (long) count);
+        }
+        return new FacetCounts(byStatus, byPriority, byTag);
+    }
+
+    private long[] intersect(long[]... masks) {
+        long[] result = BitmapIndex.all(size);
+        for (long[] mask : masks) {
+            if (mask != null) BitmapIndex.and(result, mask);
+        }
+        return result;
+    }
+
+    /** Tasks per tag, most used first and then by name ignoring case, like {@code SQLiteTaskRepository}. */
+    public Map<String, Long> tagCounts() {
+        long[] counts = new long[dictionary.size()];
+        for (int i = 0; i < tagStart[size]; i++) counts[tagIds[i]]++;
+        Map<String, Long> byName = new LinkedHashMap<>();
+        IntStream.range(0, counts.length)
+                .filter(id -> counts[id] > 0)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(id -> -counts[id])
+                        .thenComparing(id -> dictionary.name(id), String.CASE_INSENSITIVE_ORDER))
+                .forEach(id -> byName.put(dictionary.name(id), counts[id]));
+        return byName;
+    }
+
+    /**
+     * A copy with {@code saved} inserted or replacing the rows with the same id, and {@code deletedIds}
+     * removed. Unchanged runs of rows are copied in bulk.
+     */
+    public CompactTaskSet with(Collection<Task> saved, Collection<Long> deletedIds) {
+        // A null value marks a deletion; later entries win.
+        TreeMap<Long, Task> changes = new TreeMap<>();
+        saved.forEach(t -> changes.put(idOf(t), t));
+        deletedIds.forEach(id -> changes.put(id, null));
+        int rows = size;
+        int tagCount = tagStart[size];
+        for (Map.Entry<Long, Task> change : changes.entrySet()) {
+            int row = rowOf(change.getKey());
+            if (row >= 0) {
+                rows--;
+                tagCount -= tagStart[row + 1] - tagStart[row];
+            }
+            if (change.getValue() != null) {
+                rows++;
+                tagCount += change.getValue().getTags().size();
+            }
+        }
+        Columns columns = new Columns(dictionary, rows, tagCount);
+        // While every change replaces a row or appends past the last id, rows keep their numbers and the
+        // index can be patched; otherwise it is rebuilt from the new columns.
+        BitmapIndex.Updater updater = index.updater();
+        int next = 0;
+        for (Map.Entry<Long, Task> change : changes.entrySet()) {
+            int found = Arrays.binarySearch(ids, 0, size, change.getKey());
+            int until = found >= 0 ? found : -found - 1;
+            columns.copy(this, next, until);
+            next = found >= 0 ? found + 1 : until;
+            if (change.getValue() == null ? found >= 0 : found < 0 && until < size) updater = null;
+            if (change.getValue() != null) {
+                if (updater != null && found >= 0) {
+                    updater.remove(found, statuses[found], priorities[found], tagIds, tagStart[found], tagStart[found + 1]);
+                }
+                columns.add(change.getValue());
+                if (updater != null) columns.index(updater, columns.rows - 1);
+            }
+        }
+        columns.copy(this, next, size);
+        return new CompactTaskSet(columns, updater != null ? updater.build()
+                : columns.index(BitmapIndex.empty(STATUSES.length, PRIORITIES.length).updater()));
+    }
+
+    // The id and due-range criteria, which the index does not cover.
+    private final class DueRange {
+        final Set<Long> wanted;
+        final Set<Long> occurring;
+        final long from;
+        final long to;
+
+        DueRange(TaskQuery query) {
+            wanted = query.ids();
+            occurring = query.occurringIds();
+            from = query.dueFrom() == null ? Long.MIN_VALUE : query.dueFrom().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            to = query.dueTo() == null ? Long.MAX_VALUE : query.dueTo().atTime(LocalTime.MAX).toEpochSecond(ZoneOffset.UTC);
+        }
+
+        boolean accepts(int row) {
+            if (wanted != null && !wanted.contains(ids[row])) return false;
+            long due = dueSeconds[row];
+            return due == NO_DATE || (due >= from && due <= to) || (occurring != null && occurring.contains(ids[row]));
+        }
+    }
+
+    private static long idOf(Task task) {
+        if (task.getId() == null) throw new IllegalArgumentException("Only saved tasks can be stored");
+        return task.getId();
+    }
+
+    // Pre-sized columns filled in id order.
+    private static final class Columns {
+        final TagDictionary dictionary;
+        final long[] ids;
+        final String[] titles;
+        final String[] summaries;
+        final String[] markdownPaths;
+        final long[] dueSeconds;
+        final int[] dueNanos;
+        final long[] updatedSeconds;
+        final int[] updatedNanos;
+        final byte[] priorities;
+        final byte[] statuses;
+        final long[] reminders;
+        final int[] tagStart;
+        final int[] tagIds;
+        final RecurrenceRule[] rules;
+        int rows;
+
+        Columns(TagDictionary dictionary, int capacity, int tagCapacity) {
+            this.dictionary = dictionary;
+            ids = new long[capacity];
+            titles = new String[capacity];
+            summaries = new String[capacity];
+            markdownPaths = new String[capacity];
+            dueSeconds = new long[capacity];
+            dueNanos = new int[capacity];
+            updatedSeconds = new long[capacity];
+            updatedNanos = new int[capacity];
+            priorities = new byte[capacity];
+            statuses = new byte[capacity];
+            reminders = new long[capacity];
+            tagStart = new int[capacity + 1];
+            tagIds = new int[tagCapacity];
+            rules = new RecurrenceRule[capacity];
+        }
+
+        void add(Task task) {
+            int row = rows++;
+            ids[row] = idOf(task);
+            titles[row] = task.getTitle();
+            summaries[row] = task.getSummary();
+            markdownPaths[row] = task.getMarkdownPath();
+            LocalDateTime due = task.getDueDateTime();
+            dueSeconds[row] = due == null ? NO_DATE : due.toEpochSecond(ZoneOffset.UTC);
+            dueNanos[row] = due == null ? 0 : due.getNano();
+            updatedSeconds[row] = task.getUpdatedAt().toEpochSecond(ZoneOffset.UTC);
+            updatedNanos[row] = task.getUpdatedAt().getNano();
+            priorities[row] = (byte) task.getPriority().ordinal();
+            statuses[row] = (byte) task.getStatus().ordinal();
+            ReminderSettings reminder = task.getReminderSettings();
+            reminders[row] = (long) reminder.minutesBeforeDue() << 33 | (long) reminder.overdueRepeatMinutes() << 2
+                    | (reminder.soundEnabled() ? 2 : 0) | (reminder.enabled() ? 1 : 0);
+            int tag = tagStart[row];
+            for (String name : task.getTags()) tagIds[tag++] = dictionary.intern(name);
+            tagStart[row + 1] = tag;
+            RecurrenceRule rule = task.getRecurrenceRule();
+            rules[row] = !rule.isRecurring() ? null
+                    : new RecurrenceRule(rule.type(), rule.endDate(), Set.copyOf(rule.skippedDates()), rule.anchor(), rule.rrule());
+        }
+
+        BitmapIndex index(BitmapIndex.Updater updater) {
+            for (int row = 0; row < rows; row++) index(updater, row);
+            return updater.build();
+        }
+
+        void index(BitmapIndex.Updater updater, int row) {
+            updater.add(row, statuses[row], priorities[row], tagIds, tagStart[row], tagStart[row + 1]);
+        }
+
+        void copy(CompactTaskSet from, int start, int end) {
+            int count = end - start;
+            if (count <= 0) return;
+            System.arraycopy(from.ids, start, ids, rows, count);
+            System.arraycopy(from.titles, start, titles, rows, count);
+            System.arraycopy(from.summaries, start, summaries, rows, count);
+            System.arraycopy(from.markdownPaths, start, markdownPaths, rows, count);
+            System.arraycopy(from.dueSeconds, start, dueSeconds, rows, count);
+            System.arraycopy(from.dueNanos, start, dueNanos, rows, count);
+            System.arraycopy(from.updatedSeconds, start, updatedSeconds, rows, count);
+            System.arraycopy(from.updatedNanos, start, updatedNanos, rows, count);
+            System.arraycopy(from.priorities, start, priorities, rows, count);
+            System.arraycopy(from.statuses, start, statuses, rows, count);
+            System.arraycopy(from.reminders, start, reminders, rows, count);
+            System.arraycopy(from.rules, start, rules, rows, count);
+            int firstTag = from.tagStart[start];
+            int base = tagStart[rows];
+            System.arraycopy(from.tagIds, firstTag, tagIds, base, from.tagStart[end] - firstTag);
+            for (int i = 1; i <= count; i++) tagStart[rows + i] = base + from.tagStart[start + i] - firstTag;
+            rows += count;
+        }
+    }
+}
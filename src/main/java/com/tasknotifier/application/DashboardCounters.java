@@ -0,0 +1,149 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Priority;
+import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overdue, due-today and upcoming counts for open tasks, kept current from {@link TaskStore} change events.
+ * Open tasks with a due date are tallied per due date. Each bucket also keeps an aggregate tally, so reads
+ * cost nothing. At local midnight only the dates that change bucket move between aggregates.
+ */
+public class DashboardCounters implements TaskChangeListener {
+
+    // The scheduler's delay does not advance while the machine sleeps, so the date is checked at least this often.
+    private static final Duration MAX_SLEEP = Duration.ofSeconds(60);
+
+    private final NavigableMap<LocalDate, Tally> byDate = new TreeMap<>();
+    private final Map<Bucket, Tally> buckets = new EnumMap<>(Bucket.class);
+    private final List<Runnable> rolloverListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-rollover");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Clock clock;
+    private LocalDate today;
+
+    public DashboardCounters(TaskStore store) {
+        this(store, Clock.systemDefaultZone());
+    }
+
+    public DashboardCounters(TaskStore store, Clock clock) {
+        this.clock = clock;
+        this.today = LocalDate.now(clock);
+        for (Bucket bucket : Bucket.values()) buckets.put(bucket, new Tally());
+        List<Task> initial = store.subscribe(this);
+        // Events delivered before this block runs are deltas, and tallies add up in any order.
+        synchronized (this) {
+            initial.forEach(t -> apply(t, 1));
+        }
+    }
+
+    public void start() {
+        scheduleRollover();
+    }
+
+    public void stop() {
+        executorService.shutdownNow();
+    }
+
+    public void addRolloverListener(Runnable listener) {
+        rolloverListeners.add(listener);
+    }
+
+    public synchronized Summary summary() {
+        return new Summary(buckets.get(Bucket.OVERDUE).total, buckets.get(Bucket.DUE_TODAY).total, buckets.get(Bucket.UPCOMING).total);
+    }
+
+    public synchronized Map<Priority, Long> byPriority(Bucket bucket) {
+        Map<Priority, Long> counts = new EnumMap<>(Priority.class);
+        long[] tally = buckets.get(bucket).byPriority;
+        for (Priority priority : Priority.values()) {
+            if (tally[priority.ordinal()] > 0) counts.put(priority, tally[priority.ordinal()]);
+        }
+        return counts;
+    }
+
+    public synchronized Map<String, Long> byTag(Bucket bucket) {
+        return Map.copyOf(buckets.get(bucket).byTag);
+    }
+
+    @Override
+    public synchronized void taskChanged(TaskChangeEvent event) {
+        if (event.before() != null) apply(event.before(), -1);
+        if (event.after() != null) apply(event.after(), 1);
+    }
+
+    /** Moves dates between buckets for a new day; returns false if {@code newToday} is not after today. */
+    synchronized boolean rollover(LocalDate newToday) {
+        if (!newToday.isAfter(today)) return false;
+        // Dates in [today, newToday] are the only ones whose bucket changes.
+        for (Map.Entry<LocalDate, Tally> entry : byDate.subMap(today, true, newToday, true).entrySet()) {
+            buckets.get(bucketOf(entry.getKey(), today)).add(entry.getValue(), -1);
+            buckets.get(bucketOf(entry.getKey(), newToday)).add(entry.getValue(), 1);
+        }
+        today = newToday;
+        return true;
+    }
+
+    private void apply(Task task, int sign) {
+        if (task.getDueDateTime() == null || task.getStatus() == TaskStatus.DONE || task.getStatus() == TaskStatus.ARCHIVED) return;
+        LocalDate due = task.getDueDateTime().toLocalDate();
+        Tally date = byDate.computeIfAbsent(due, d -> new Tally());
+        date.add(task, sign);
+        if (date.isEmpty()) byDate.remove(due);
+        buckets.get(bucketOf(due, today)).add(task, sign);
+    }
+
+    private void scheduleRollover() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        long delayMillis = Math.min(Duration.between(now, midnight).toMillis() + 1, MAX_SLEEP.toMillis());
+        executorService.schedule(() -> {
+            if (rollover(LocalDate.now(clock))) rolloverListeners.forEach(Runnable::run);
+            scheduleRollover();
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static Bucket bucketOf(LocalDate due, LocalDate today) {
+        if (due.isBefore(today)) return Bucket.OVERDUE;
+        return due.isEqual(today) ? Bucket.DUE_TODAY : Bucket.UPCOMING;
+    }
+
+    public enum Bucket { OVERDUE, DUE_TODAY, UPCOMING }
+
+    public record Summary(long overdue, long dueToday, long upcoming) {}
+
+    private static final class Tally {
+        private long total;
+        private final long[] byPriority = new long[Priority.values().length];
+        private final Map<String, Long> byTag = new HashMap<>();
+
+        void add(Task task, int sign) {
+            total += sign;
+            byPriority[task.getPriority().ordinal()] += sign;
+            for (String tag : task.getTags()) byTag.merge(tag, (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        boolean isEmpty() {
+            return total == 0 && byTag.isEmpty() && Arrays.stream(byPriority).allMatch(c -> c == 0);
+        }
+
+        void add(Tally other, int sign) {
+            total += sign * other.total;
+            for (int i = 0; i < byPriority.length; i++) byPriority[i] += sign * other.byPriority[i];
+            other.byTag.forEach((tag, count) -> byTag.merge(tag, sign * count, (a, b) -> a + b == 0 ? null : a + b));
+        }
+    }
+}
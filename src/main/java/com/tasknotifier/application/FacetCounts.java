@@ -0,0 +1,9 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Priority;
+import com.tasknotifier.domain.TaskStatus;
+
+import java.util.Map;
+
+/** Match counts shown next to each filter option; see {@link CompactTaskSet#facets}. */
+public record FacetCounts(Map<TaskStatus, Long> byStatus, Map<Priority, Long> byPriority, Map<String, Long> byTag) {}
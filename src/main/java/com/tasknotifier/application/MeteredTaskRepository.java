@@ -0,0 +1,88 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/** Times every call to the wrapped repository under {@code repository.<method>}. */
+public class MeteredTaskRepository implements TaskRepository {
+
+    private final TaskRepository delegate;
+    private final MetricsRegistry.Timer save;
+    private final MetricsRegistry.Timer saveAll;
+    private final MetricsRegistry.Timer findAll;
+    private final MetricsRegistry.Timer query;
+    private final MetricsRegistry.Timer findById;
+    private final MetricsRegistry.Timer delete;
+    private final MetricsRegistry.Timer updateStatusAll;
+    private final MetricsRegistry.Timer tagCounts;
+    private final MetricsRegistry.Timer renameTag;
+
+    public MeteredTaskRepository(TaskRepository delegate, MetricsRegistry metrics) {
+        this.delegate = delegate;
+        this.save = metrics.timer("repository.save");
+        this.saveAll = metrics.timer("repository.saveAll");
+        this.findAll = metrics.timer("repository.findAll");
+        this.query = metrics.timer("repository.query");
+        this.findById = metrics.timer("repository.findById");
+        this.delete = metrics.timer("repository.delete");
+        this.updateStatusAll = metrics.timer("repository.updateStatusAll");
+        this.tagCounts = metrics.timer("repository.tagCounts");
+        this.renameTag = metrics.timer("repository.renameTag");
+    }
+
+    @Override
+    public Task save(Task task) {
+        return save.time(() -> delegate.save(task));
+    }
+
+    @Override
+    public List<Task> saveAll(List<Task> tasks) {
+        return saveAll.time(() -> delegate.saveAll(tasks));
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return findAll.time(delegate::findAll);
+    }
+
+    @Override
+    public List<Task> query(TaskQuery taskQuery) {
+        return query.time(() -> delegate.query(taskQuery));
+    }
+
+    @Override
+    public Optional<Task> findById(long id) {
+        return findById.time(() -> delegate.findById(id));
+    }
+
+    @Override
+    public void deleteById(long id) {
+        delete.time(() -> delegate.deleteById(id));
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        return delete.time(() -> delegate.deleteAllById(ids));
+    }
+
+    @Override
+    public int updateStatusAll(Collection<Long> ids, TaskStatus status, LocalDateTime updatedAt) {
+        return updateStatusAll.time(() -> delegate.updateStatusAll(ids, status, updatedAt));
+    }
+
+    @Override
+    public Map<String, Long> tagCounts() {
+        return tagCounts.time(delegate::tagCounts);
+    }
+
+    @Override
+    public int renameTag(String from, String to) {
+        return renameTag.time(() -> delegate.renameTag(from, to));
+    }
+}
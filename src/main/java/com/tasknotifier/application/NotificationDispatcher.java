@@ -0,0 +1,161 @@
+package com.tasknotifier.application;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, rate-limited stage in front of a {@link NotificationService}. Notifications that arrive
+ * together and share a title are merged into one digest ("14 tasks overdue"). Reminders that carry an
+ * intended instant are reported to {@link ReminderPunctuality} when they are handed on.
+ */
+public class NotificationDispatcher implements NotificationService {
+
+    private static final int DIGEST_PREVIEW = 5;
+
+    private final NotificationService delegate;
+    private final Settings settings;
+    private final ReminderPunctuality punctuality;
+    private final BlockingQueue<Notification> queue;
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final MetricsRegistry.Counter sentCounter = MetricsRegistry.global().counter("notifications.sent");
+    private final MetricsRegistry.Counter droppedCounter = MetricsRegistry.global().counter("notifications.dropped");
+    private long nextPermitNanos;
+
+    public NotificationDispatcher(NotificationService delegate, Settings settings) {
+        this(delegate, settings, null);
+    }
+
+    public NotificationDispatcher(NotificationService delegate, Settings settings, ReminderPunctuality punctuality) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.punctuality = punctuality;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+    }
+
+    public void start() {
+        executorService.submit(this::run);
+    }
+
+    public void stop() {
+        executorService.shutdownNow();
+    }
+
+    @Override
+    public void notify(String title, String message) {
+        notify(title, message, null);
+    }
+
+    @Override
+    public void notify(String title, String message, LocalDateTime intendedAt) {
+        submitted.incrementAndGet();
+        if (!queue.offer(new Notification(title, message, intendedAt))) {
+            dropped.incrementAndGet();
+            droppedCounter.increment();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(submitted.get(), delivered.get(), merged.get(), dropped.get(), queue.size());
+    }
+
+    void dispatchPending() {
+        List<Notification> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        deliver(batch, false);
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Notification> batch = new ArrayList<>();
+                batch.add(queue.take());
+                Thread.sleep(settings.coalesceWindow().toMillis());
+                queue.drainTo(batch);
+                deliver(batch, true);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(List<Notification> batch, boolean throttle) {
+        Map<String, List<Notification>> byTitle = new LinkedHashMap<>();
+        batch.forEach(n -> byTitle.computeIfAbsent(n.title(), k -> new ArrayList<>()).add(n));
+        for (List<Notification> group : byTitle.values()) {
+            try {
+                if (throttle) awaitPermit();
+                Notification first = group.get(0);
+                recordPunctuality(group);
+                if (group.size() == 1) {
+                    delegate.notify(first.title(), first.message());
+                } else {
+                    delegate.notify(digestTitle(first.title(), group.size()), digestMessage(group));
+                    merged.addAndGet(group.size() - 1);
+                }
+                delivered.incrementAndGet();
+                sentCounter.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                dropped.addAndGet(group.size());
+                droppedCounter.add(group.size());
+            }
+        }
+    }
+
+    private void recordPunctuality(List<Notification> group) {
+        if (punctuality == null) return;
+        for (Notification n : group) {
+            if (n.intendedAt() != null) punctuality.record(n.title(), n.message(), n.intendedAt());
+        }
+    }
+
+    private void awaitPermit() throws InterruptedException {
+        long interval = Duration.ofMinutes(1).toNanos() / settings.maxPerMinute();
+        long wait = nextPermitNanos - System.nanoTime();
+        if (wait > 0) Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        nextPermitNanos = System.nanoTime() + interval;
+    }
+
+    static String digestTitle(String title, int count) {
+        if (title.startsWith("Task ")) return count + " tasks " + title.substring("Task ".length());
+        return title + " (" + count + ")";
+    }
+
+    private static String digestMessage(List<Notification> group) {
+        List<String> preview = group.stream().limit(DIGEST_PREVIEW).map(Notification::message).toList();
+        String text = String.join(", ", preview);
+        return group.size() > DIGEST_PREVIEW ? text + " and " + (group.size() - DIGEST_PREVIEW) + " more" : text;
+    }
+
+    private record Notification(String title, String message, LocalDateTime intendedAt) {}
+
+    public record Settings(int queueCapacity, int maxPerMinute, Duration coalesceWindow) {
+
+        public Settings {
+            if (queueCapacity < 1 || maxPerMinute < 1 || coalesceWindow.isNegative()) {
+                throw new IllegalArgumentException("Notification dispatch settings are invalid");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(500, 12, Duration.ofMillis(1500));
+        }
+    }
+
+    public record Stats(long submitted, long delivered, long merged, long dropped, int queued) {}
+}
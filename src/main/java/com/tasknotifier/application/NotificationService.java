@@ -1,5 +1,12 @@
 package com.tasknotifier.application;
 
+import java.time.LocalDateTime;
+
 public interface NotificationService {
     void notify(String title, String message);
+
+    /** A reminder that was meant to go out at {@code intendedAt}; services that track punctuality override this. */
+    default void notify(String title, String message, LocalDateTime intendedAt) {
+        notify(title, message);
+    }
 }
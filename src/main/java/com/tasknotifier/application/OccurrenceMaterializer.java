@@ -0,0 +1,132 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the occurrence table in step with the {@link TaskStore}. Each open dated task gets a row for its
+ * current due date. A recurring task also gets rows for its next {@code horizon} occurrences from today on.
+ * Only events that change a task's due date, rule or status rewrite its rows. Writes run on one background
+ * thread in event order. {@link #refresh()} regenerates everything, and is meant to run once a day so the
+ * horizon keeps moving forward.
+ */
+public class OccurrenceMaterializer implements TaskChangeListener {
+
+    static final int DEFAULT_HORIZON = 32;
+
+    private final OccurrenceRepository occurrences;
+    private final RecurrenceEngine engine;
+    private final int horizon;
+    private final Clock clock;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "occurrence-materializer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private TaskStore store;
+    private LocalDate today;
+
+    public OccurrenceMaterializer(OccurrenceRepository occurrences, RecurrenceEngine engine) {
+        this(occurrences, engine, DEFAULT_HORIZON, Clock.systemDefaultZone());
+    }
+
+    public OccurrenceMaterializer(OccurrenceRepository occurrences, RecurrenceEngine engine, int horizon, Clock clock) {
+        this.occurrences = occurrences;
+        this.engine = engine;
+        this.horizon = horizon;
+        this.clock = clock;
+        this.today = LocalDate.now(clock);
+    }
+
+    public void start(TaskStore store) {
+        this.store = store;
+        // Subscribing on the worker thread queues every later event behind the initial rebuild.
+        executorService.execute(() -> rebuild(store.subscribe(this)));
+    }
+
+    public void stop() {
+        executorService.shutdownNow();
+    }
+
+    public void refresh() {
+        executorService.execute(() -> {
+            today = LocalDate.now(clock);
+            rebuild(store.findAll());
+        });
+    }
+
+    /** Called on the materializer thread after the table changed. */
+    public void addChangeListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public List<OccurrenceRepository.Occurrence> agenda(LocalDate from, LocalDate to) {
+        return occurrences.findBetween(from, to);
+    }
+
+    public Set<Long> taskIdsBetween(LocalDate from, LocalDate to) {
+        Set<Long> ids = new HashSet<>();
+        for (OccurrenceRepository.Occurrence occurrence : agenda(from, to)) ids.add(occurrence.taskId());
+        return ids;
+    }
+
+    @Override
+    public void taskChanged(TaskChangeEvent event) {
+        if (sameSchedule(event.before(), event.after())) return;
+        executorService.execute(() -> {
+            occurrences.replace(Map.of(event.taskId(), event.after() == null ? List.of() : occurrencesOf(event.after())));
+            notifyListeners();
+        });
+    }
+
+    // Waits until everything submitted so far has been processed.
+    void flush() throws Exception {
+        executorService.submit(() -> { }).get(10, TimeUnit.SECONDS);
+    }
+
+    List<LocalDateTime> occurrencesOf(Task task) {
+        LocalDateTime due = task.getDueDateTime();
+        if (due == null || task.getStatus() == TaskStatus.DONE || task.getStatus() == TaskStatus.ARCHIVED) return List.of();
+        if (!task.getRecurrenceRule().isRecurring()) return List.of(due);
+        SortedSet<LocalDateTime> result = new TreeSet<>();
+        result.add(due);
+        engine.occurrences(due, task.getRecurrenceRule(), today, LocalDate.MAX).limit(horizon).forEach(result::add);
+        return List.copyOf(result);
+    }
+
+    private void rebuild(List<Task> tasks) {
+        Map<Long, List<LocalDateTime>> all = new HashMap<>();
+        for (Task task : tasks) {
+            List<LocalDateTime> rows = occurrencesOf(task);
+            if (!rows.isEmpty()) all.put(task.getId(), rows);
+        }
+        occurrences.replaceAll(all);
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
+    private static boolean sameSchedule(Task before, Task after) {
+        return before != null && after != null
+                && Objects.equals(before.getDueDateTime(), after.getDueDateTime())
+                && before.getStatus() == after.getStatus()
+                && before.getRecurrenceRule().equals(after.getRecurrenceRule());
+    }
+}
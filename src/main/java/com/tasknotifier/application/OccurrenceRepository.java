@@ -0,0 +1,15 @@
+package com.tasknotifier.application;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface OccurrenceRepository {
+    /** Replaces the stored occurrences of each task in the map; an empty list removes them. */
+    void replace(Map<Long, List<LocalDateTime>> occurrencesByTask);
+    void replaceAll(Map<Long, List<LocalDateTime>> occurrencesByTask);
+    List<Occurrence> findBetween(LocalDate from, LocalDate to);
+
+    record Occurrence(long taskId, LocalDateTime occursAt) {}
+}
@@ -0,0 +1,229 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.RRule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A parsed {@link RRule} compiled for fast expansion. BYDAY and BYMONTHDAY become bitmasks, and each
+ * period (day, week, month or year) is expanded into a small reusable buffer of day-of-period candidates.
+ * BYSETPOS then picks from that buffer. Without COUNT, iteration starts at the period containing the
+ * requested date instead of at the anchor.
+ */
+final class RRuleEvaluator {
+
+    // A rule that matches nothing (e.g. BYMONTHDAY=31 with FREQ=YEARLY in February) ends after this many empty periods.
+    private static final int MAX_EMPTY_PERIODS = 5000;
+
+    private final RRule rule;
+    private final int weekdayMask;
+    private final int[] numberedOrdinals;
+    private final int[] numberedWeekdays;
+    private final long positiveMonthDays;
+    private final long negativeMonthDays;
+    private final int[] setPositions;
+
+    RRuleEvaluator(RRule rule) {
+        this.rule = rule;
+        int mask = 0;
+        int numbered = (int) rule.byDay().stream().filter(d -> d.ordinal() != 0).count();
+        numberedOrdinals = new int[numbered];
+        numberedWeekdays = new int[numbered];
+        int i = 0;
+        for (RRule.WeekdayNum day : rule.byDay()) {
+            if (day.ordinal() == 0) {
+                mask |= bit(day.day());
+            } else {
+                numberedOrdinals[i] = day.ordinal();
+                numberedWeekdays[i++] = day.day().getValue();
+            }
+        }
+        weekdayMask = mask;
+        long positive = 0;
+        long negative = 0;
+        for (int day : rule.byMonthDay()) {
+            if (day > 0) positive |= 1L << day; else negative |= 1L << -day;
+        }
+        positiveMonthDays = positive;
+        negativeMonthDays = negative;
+        setPositions = rule.bySetPos().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /** Occurrences of the series that starts at {@code anchor}, in order, dated on or after {@code from}. */
+    Iterator<LocalDateTime> iterator(LocalDateTime anchor, LocalDate from) {
+        return new Iterator<>() {
+            private final LocalDate start = anchor.toLocalDate();
+            private final int[] candidates = new int[366];
+            private final int[] selected = new int[366];
+            private long period = rule.count() == null ? firstPeriod(start, from) : 0;
+            private LocalDate base;
+            private int size;
+            private int position;
+            private int emitted;
+            private LocalDateTime pending = advance();
+
+            private LocalDateTime advance() {
+                int empty = 0;
+                while (true) {
+                    while (position < size) {
+                        LocalDate date = base.plusDays(selected[position++]);
+                        if (date.isBefore(start)) continue;
+                        if (rule.until() != null && date.isAfter(rule.until())) return null;
+                        if (rule.count() != null && emitted >= rule.count()) return null;
+                        emitted++;
+                        if (!date.isBefore(from)) return date.atTime(anchor.toLocalTime());
+                    }
+                    if (++empty > MAX_EMPTY_PERIODS) return null;
+                    expand(period++);
+                    if (size > 0) empty = 0;
+                    if (rule.until() != null && base.isAfter(rule.until())) return null;
+                }
+            }
+
+            private void expand(long p) {
+                long step = p * rule.interval();
+                int count = switch (rule.frequency()) {
+                    case DAILY -> {
+                        base = start.plusDays(step);
+                        yield matchesDay(base) ? single(candidates) : 0;
+                    }
+                    case WEEKLY -> {
+                        base = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).plusWeeks(step);
+                        yield expandWeek(base, start.getDayOfWeek(), candidates);
+                    }
+                    case MONTHLY -> {
+                        YearMonth month = YearMonth.from(start).plusMonths(step);
+                        base = month.atDay(1);
+                        yield expandMonth(month, start.getDayOfMonth(), candidates);
+                    }
+                    case YEARLY -> {
+                        YearMonth month = YearMonth.of(start.getYear(), start.getMonth()).plusYears(step);
+                        base = month.atDay(1);
+                        if (start.getDayOfMonth() > month.lengthOfMonth()) yield 0;
+                        candidates[0] = start.getDayOfMonth() - 1;
+                        yield 1;
+                    }
+                };
+                size = applySetPositions(candidates, count, selected);
+                position = 0;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (pending == null) throw new NoSuchElementException();
+                LocalDateTime current = pending;
+                pending = advance();
+                return current;
+            }
+        };
+    }
+
+    private long firstPeriod(LocalDate start, LocalDate from) {
+        if (!from.isAfter(start)) return 0;
+        long periods = switch (rule.frequency()) {
+            case DAILY -> ChronoUnit.DAYS.between(start, from);
+            case WEEKLY -> ChronoUnit.WEEKS.between(start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), from);
+            case MONTHLY -> ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(from));
+            case YEARLY -> from.getYear() - start.getYear();
+        };
+        return periods / rule.interval();
+    }
+
+    private boolean matchesDay(LocalDate date) {
+        if (weekdayMask != 0 && (weekdayMask & bit(date.getDayOfWeek())) == 0) return false;
+        return matchesMonthDay(date.getDayOfMonth(), date.lengthOfMonth());
+    }
+
+    private int expandWeek(LocalDate monday, DayOfWeek anchorDay, int[] out) {
+        int count = 0;
+        for (int offset = 0; offset < 7; offset++) {
+            DayOfWeek day = DayOfWeek.of(offset + 1);
+            boolean weekday = weekdayMask == 0 ? day == anchorDay : (weekdayMask & bit(day)) != 0;
+            if (!weekday) continue;
+            if (positiveMonthDays != 0 || negativeMonthDays != 0) {
+                LocalDate date = monday.plusDays(offset);
+                if (!matchesMonthDay(date.getDayOfMonth(), date.lengthOfMonth())) continue;
+            }
+            out[count++] = offset;
+        }
+        return count;
+    }
+
+    private int expandMonth(YearMonth month, int anchorDayOfMonth, int[] out) {
+        int length = month.lengthOfMonth();
+        boolean byMonthDay = positiveMonthDays != 0 || negativeMonthDays != 0;
+        boolean byDay = weekdayMask != 0 || numberedOrdinals.length > 0;
+        if (!byMonthDay && !byDay) {
+            if (anchorDayOfMonth > length) return 0;
+            out[0] = anchorDayOfMonth - 1;
+            return 1;
+        }
+        int firstWeekday = month.atDay(1).getDayOfWeek().getValue() - 1;
+        int count = 0;
+        for (int day = 1; day <= length; day++) {
+            int weekday = (firstWeekday + day - 1) % 7;
+            boolean match = !byMonthDay || matchesMonthDay(day, length);
+            if (match && byDay) match = (weekdayMask & (1 << weekday)) != 0 || matchesNumbered(day, weekday + 1, length);
+            if (match) out[count++] = day - 1;
+        }
+        return count;
+    }
+
+    private boolean matchesNumbered(int day, int weekday, int length) {
+        for (int i = 0; i < numberedOrdinals.length; i++) {
+            if (numberedWeekdays[i] != weekday) continue;
+            int ordinal = numberedOrdinals[i];
+            if (ordinal > 0 ? (day - 1) / 7 + 1 == ordinal : (length - day) / 7 + 1 == -ordinal) return true;
+        }
+        return false;
+    }
+
+    private boolean matchesMonthDay(int day, int length) {
+        if (positiveMonthDays == 0 && negativeMonthDays == 0) return true;
+        return (positiveMonthDays & (1L << day)) != 0 || (negativeMonthDays & (1L << (length - day + 1))) != 0;
+    }
+
+    private int applySetPositions(int[] candidates, int count, int[] out) {
+        if (setPositions.length == 0) {
+            System.arraycopy(candidates, 0, out, 0, count);
+            return count;
+        }
+        int size = 0;
+        int previous = -1;
+        // Positions resolve to ascending indexes once negatives are mapped; merge them in order without duplicates.
+        int[] indexes = new int[setPositions.length];
+        for (int i = 0; i < setPositions.length; i++) {
+            int pos = setPositions[i];
+            indexes[i] = pos > 0 ? pos - 1 : count + pos;
+        }
+        Arrays.sort(indexes);
+        for (int index : indexes) {
+            if (index < 0 || index >= count || index == previous) continue;
+            out[size++] = candidates[index];
+            previous = index;
+        }
+        return size;
+    }
+
+    private static int single(int[] out) {
+        out[0] = 0;
+        return 1;
+    }
+
+    private static int bit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+}
@@ -0,0 +1,166 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.RRule;
+import com.tasknotifier.domain.RecurrenceRule;
+import com.tasknotifier.domain.RecurrenceType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Computes occurrences of a recurrence rule. The fixed types are closed form: occurrence {@code n} is
+ * {@code anchor + n periods}, so a series anchored on Jan 31 yields Feb 28, Mar 31, Apr 30 rather than
+ * drifting to the 28th. Custom RRULEs run through a compiled {@link RRuleEvaluator}, cached per rule text.
+ * Skipped dates are checked by binary search over their sorted epoch days. Range expansions are memoized
+ * per rule and range in a small LRU cache.
+ */
+public class RecurrenceEngine {
+
+    private static final int MAX_CACHED_EXPANSIONS = 256;
+
+    private final Map<String, RRuleEvaluator> compiled = new ConcurrentHashMap<>();
+    private final Map<ExpansionKey, List<LocalDateTime>> expansions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ExpansionKey, List<LocalDateTime>> eldest) {
+            return size() > MAX_CACHED_EXPANSIONS;
+        }
+    };
+
+    public static LocalDateTime occurrence(LocalDateTime anchor, RecurrenceType type, long n) {
+        return switch (type) {
+            case DAILY -> anchor.plusDays(n);
+            case WEEKLY -> anchor.plusWeeks(n);
+            case MONTHLY -> anchor.plusMonths(n);
+            case NONE -> anchor;
+            case CUSTOM -> throw new IllegalArgumentException("Custom rules have no closed form");
+        };
+    }
+
+    /** Index of the first occurrence on or after {@code date}. */
+    public static long indexOnOrAfter(LocalDateTime anchor, RecurrenceType type, LocalDate date) {
+        long days = ChronoUnit.DAYS.between(anchor.toLocalDate(), date);
+        if (days <= 0 || type == RecurrenceType.NONE || type == RecurrenceType.CUSTOM) return 0;
+        return switch (type) {
+            case DAILY -> days;
+            case WEEKLY -> -Math.floorDiv(-days, 7);
+            case MONTHLY -> {
+                long months = ChronoUnit.MONTHS.between(YearMonth.from(anchor), YearMonth.from(date));
+                yield occurrence(anchor, type, months).toLocalDate().isBefore(date) ? months + 1 : months;
+            }
+            case NONE, CUSTOM -> 0;
+        };
+    }
+
+    /** The first occurrence strictly after {@code due} that is not skipped, or null once the series has ended. */
+    public LocalDateTime next(LocalDateTime due, RecurrenceRule rule) {
+        if (due == null || rule == null || !rule.isRecurring()) return due;
+        Iterator<LocalDateTime> rest = filtered(series(anchorOf(due, rule), rule, due.toLocalDate()), rule, due, rule.endDate());
+        return rest.hasNext() ? rest.next() : null;
+    }
+
+    /**
+     * Lazily enumerates occurrences from the current {@code due} onwards whose date falls within
+     * {@code [from, to]}, skipped dates excluded.
+     */
+    public Stream<LocalDateTime> occurrences(LocalDateTime due, RecurrenceRule rule, LocalDate from, LocalDate to) {
+        if (due == null || rule == null) return Stream.empty();
+        if (!rule.isRecurring()) {
+            LocalDate date = due.toLocalDate();
+            return date.isBefore(from) || date.isAfter(to) ? Stream.empty() : Stream.of(due);
+        }
+        LocalDate until = rule.endDate() == null || rule.endDate().isAfter(to) ? to : rule.endDate();
+        LocalDate start = from.isAfter(due.toLocalDate()) ? from : due.toLocalDate();
+        Iterator<LocalDateTime> iterator = filtered(series(anchorOf(due, rule), rule, start), rule, null, until);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** Same as {@link #occurrences} but materialized and cached for repeated agenda and calendar renders. */
+    public List<LocalDateTime> expand(LocalDateTime due, RecurrenceRule rule, LocalDate from, LocalDate to) {
+        if (due == null || rule == null) return List.of();
+        ExpansionKey key = new ExpansionKey(rule.type(), rule.rrule(), anchorOf(due, rule), rule.endDate(), Set.copyOf(rule.skippedDates()), from, to);
+        synchronized (expansions) {
+            List<LocalDateTime> cached = expansions.get(key);
+            if (cached != null) return cached;
+        }
+        List<LocalDateTime> expanded = occurrences(due, rule, from, to).toList();
+        synchronized (expansions) {
+            expansions.put(key, expanded);
+        }
+        return expanded;
+    }
+
+    private static LocalDateTime anchorOf(LocalDateTime due, RecurrenceRule rule) {
+        return rule.anchor() == null ? due : rule.anchor();
+    }
+
+    // Raw occurrences dated on or after {@code from}, before skipped dates and the end date are applied.
+    private Iterator<LocalDateTime> series(LocalDateTime anchor, RecurrenceRule rule, LocalDate from) {
+        if (rule.type() == RecurrenceType.CUSTOM) {
+            return compiled.computeIfAbsent(rule.rrule(), text -> new RRuleEvaluator(RRule.parse(text))).iterator(anchor, from);
+        }
+        long first = indexOnOrAfter(anchor, rule.type(), from);
+        return new Iterator<>() {
+            private long n = first;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public LocalDateTime next() {
+                return occurrence(anchor, rule.type(), n++);
+            }
+        };
+    }
+
+    private static Iterator<LocalDateTime> filtered(Iterator<LocalDateTime> series, RecurrenceRule rule, LocalDateTime after, LocalDate until) {
+        SkippedDates skipped = SkippedDates.of(rule.skippedDates());
+        return new Iterator<>() {
+            private LocalDateTime pending = advance();
+
+            private LocalDateTime advance() {
+                while (series.hasNext()) {
+                    LocalDateTime candidate = series.next();
+                    if (until != null && candidate.toLocalDate().isAfter(until)) return null;
+                    if (after != null && !candidate.isAfter(after)) continue;
+                    if (!skipped.contains(candidate.toLocalDate())) return candidate;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (pending == null) throw new NoSuchElementException();
+                LocalDateTime current = pending;
+                pending = advance();
+                return current;
+            }
+        };
+    }
+
+    private record SkippedDates(long[] epochDays) {
+
+        static SkippedDates of(Set<LocalDate> dates) {
+            return new SkippedDates(dates.stream().mapToLong(LocalDate::toEpochDay).sorted().toArray());
+        }
+
+        boolean contains(LocalDate date) {
+            return epochDays.length > 0 && Arrays.binarySearch(epochDays, date.toEpochDay()) >= 0;
+        }
+    }
+
+    private record ExpansionKey(RecurrenceType type, String rrule, LocalDateTime anchor, LocalDate endDate, Set<LocalDate> skipped,
+                                LocalDate from, LocalDate to) {}
+}
@@ -8,27 +8,21 @@ import java.time.LocalDateTime;
 
 public class RecurrenceService {
 
+    private final RecurrenceEngine engine = new RecurrenceEngine();
+
+    public RecurrenceEngine engine() {
+        return engine;
+    }
+
     public LocalDateTime nextOccurrence(LocalDateTime due, RecurrenceRule rule) {
-        if (due == null || rule == null || !rule.isRecurring()) return due;
-        LocalDateTime next = due;
-        do {
-            next = switch (rule.type()) {
-                case DAILY -> next.plusDays(1);
-                case WEEKLY -> next.plusWeeks(1);
-                case MONTHLY -> next.plusMonths(1);
-                case NONE -> next;
-            };
-            if (rule.endDate() != null && next.toLocalDate().isAfter(rule.endDate())) {
-                return null;
-            }
-        } while (rule.skippedDates().contains(next.toLocalDate()));
-        return next;
+        return engine.next(due, rule);
     }
 
     public String summarize(RecurrenceRule rule) {
         if (rule == null || rule.type() == RecurrenceType.NONE) return "None";
         String suffix = rule.endDate() == null ? "never ends" : "until " + rule.endDate();
-        return rule.type().name() + " (" + suffix + ")";
+        String name = rule.type() == RecurrenceType.CUSTOM ? rule.rrule() : rule.type().name();
+        return name + " (" + suffix + ")";
     }
 
     public RecurrenceRule skipOccurrence(RecurrenceRule rule, LocalDate occurrenceDate) {
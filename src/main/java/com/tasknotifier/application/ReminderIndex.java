@@ -0,0 +1,78 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Task;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Min-heap of upcoming reminder instants, one live entry per task.
+ * Replaced or removed entries stay in the heap until they reach the head and are discarded there.
+ * Entries handed out by {@link #pollDue} can be put back with {@link #requeue}, which gives way to any
+ * {@link #put} or {@link #remove} for the task made in the meantime.
+ */
+public class ReminderIndex {
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparing(Entry::fireAt));
+    private final Map<Long, Entry> live = new HashMap<>();
+    private final Set<Long> polled = new HashSet<>();
+
+    public synchronized void put(Task task, LocalDateTime fireAt) {
+        Entry entry = new Entry(task, fireAt);
+        polled.remove(task.getId());
+        live.put(task.getId(), entry);
+        queue.add(entry);
+        if (queue.size() > 2 * live.size() + 64) compact();
+    }
+
+    public synchronized void remove(long taskId) {
+        polled.remove(taskId);
+        live.remove(taskId);
+    }
+
+    /** Puts back a polled task unless it was updated or removed since; returns whether it was put back. */
+    public synchronized boolean requeue(Task task, LocalDateTime fireAt) {
+        if (!polled.contains(task.getId())) return false;
+        put(task, fireAt);
+        return true;
+    }
+
+    public synchronized Optional<LocalDateTime> nextFireAt() {
+        discardStaleHead();
+        return queue.isEmpty() ? Optional.empty() : Optional.of(queue.peek().fireAt());
+    }
+
+    public synchronized List<Entry> pollDue(LocalDateTime now) {
+        List<Entry> due = new ArrayList<>();
+        discardStaleHead();
+        while (!queue.isEmpty() && !queue.peek().fireAt().isAfter(now)) {
+            Entry entry = queue.poll();
+            live.remove(entry.task().getId());
+            polled.add(entry.task().getId());
+            due.add(entry);
+            discardStaleHead();
+        }
+        return due;
+    }
+
+    public synchronized boolean contains(long taskId) {
+        return live.containsKey(taskId);
+    }
+
+    public synchronized int size() {
+        return live.size();
+    }
+
+    private void discardStaleHead() {
+        while (!queue.isEmpty() && live.get(queue.peek().task().getId()) != queue.peek()) {
+            queue.poll();
+        }
+    }
+
+    private void compact() {
+        queue.clear();
+        queue.addAll(live.values());
+    }
+
+    public record Entry(Task task, LocalDateTime fireAt) {}
+}
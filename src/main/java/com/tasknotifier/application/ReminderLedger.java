@@ -0,0 +1,14 @@
+package com.tasknotifier.application;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ReminderLedger {
+    List<Entry> findAll();
+    void recordAll(List<Entry> entries);
+    void evict(long taskId);
+
+    enum Kind { BEFORE_DUE, OVERDUE }
+
+    record Entry(long taskId, Kind kind, LocalDateTime firedAt) {}
+}
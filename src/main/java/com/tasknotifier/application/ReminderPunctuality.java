@@ -0,0 +1,78 @@
+package com.tasknotifier.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Lateness of delivered reminders: the time from the instant a reminder was due to fire to the instant it
+ * was handed to the notification service. Every delivery goes into the {@code reminders.lateness}
+ * histogram. Deliveries later than the budget are logged and kept in a short list for inspection.
+ */
+public class ReminderPunctuality {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderPunctuality.class);
+    private static final int MAX_RECENT_BREACHES = 50;
+
+    private final Duration budget;
+    private final Clock clock;
+    private final MetricsRegistry.Timer lateness;
+    private final MetricsRegistry.Counter breaches;
+    private final Deque<Breach> recentBreaches = new ArrayDeque<>();
+
+    public ReminderPunctuality(Duration budget, MetricsRegistry metrics) {
+        this(budget, metrics, Clock.systemDefaultZone());
+    }
+
+    public ReminderPunctuality(Duration budget, MetricsRegistry metrics, Clock clock) {
+        if (budget.isNegative()) throw new IllegalArgumentException("Lateness budget must not be negative");
+        this.budget = budget;
+        this.clock = clock;
+        this.lateness = metrics.timer("reminders.lateness");
+        this.breaches = metrics.counter("reminders.lateBeyondBudget");
+    }
+
+    /** Records a reminder handed on now that was meant to go out at {@code intendedAt}. */
+    public void record(String title, String message, LocalDateTime intendedAt) {
+        LocalDateTime dispatchedAt = LocalDateTime.now(clock);
+        Duration late = Duration.between(intendedAt, dispatchedAt);
+        if (late.isNegative()) late = Duration.ZERO;
+        lateness.record(late.toNanos());
+        if (late.compareTo(budget) <= 0) return;
+        breaches.increment();
+        Breach breach = new Breach(title, message, intendedAt, dispatchedAt);
+        synchronized (recentBreaches) {
+            if (recentBreaches.size() == MAX_RECENT_BREACHES) recentBreaches.removeFirst();
+            recentBreaches.addLast(breach);
+        }
+        log.warn("Reminder '{}: {}' fired {} ms late (due {}, budget {} ms)",
+                title, message, late.toMillis(), intendedAt, budget.toMillis());
+    }
+
+    public Duration budget() {
+        return budget;
+    }
+
+    public MetricsRegistry.Snapshot lateness() {
+        return lateness.snapshot();
+    }
+
+    /** The latest deliveries that exceeded the budget, oldest first. */
+    public List<Breach> recentBreaches() {
+        synchronized (recentBreaches) {
+            return List.copyOf(recentBreaches);
+        }
+    }
+
+    public record Breach(String title, String message, LocalDateTime intendedAt, LocalDateTime dispatchedAt) {
+        public Duration lateness() {
+            return Duration.between(intendedAt, dispatchedAt);
+        }
+    }
+}
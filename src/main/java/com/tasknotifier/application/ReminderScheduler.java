@@ -3,51 +3,169 @@ package com.tasknotifier.application;
 import com.tasknotifier.domain.Task;
 import com.tasknotifier.domain.TaskStatus;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-public class ReminderScheduler {
+public class ReminderScheduler implements TaskChangeListener {
+
+    private static final Duration MAX_SLEEP = Duration.ofSeconds(60);
 
-    private final TaskService taskService;
     private final NotificationService notificationService;
+    private final ReminderLedger ledger;
+    private final Clock clock;
+    private final Map<LedgerKey, LocalDateTime> lastFired = new ConcurrentHashMap<>();
     private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
-    private final Set<String> sentReminderKeys = new HashSet<>();
-    private boolean enabled = true;
+    private final ReminderIndex index = new ReminderIndex();
+    private final Object ledgerLock = new Object();
+    private final MetricsRegistry.Timer tickTimer = MetricsRegistry.global().timer("reminders.tick");
+    private final MetricsRegistry.Counter firedCounter = MetricsRegistry.global().counter("reminders.fired");
+    private volatile boolean enabled = true;
+    private boolean started;
+    private volatile LocalDateTime runningSince = LocalDateTime.MIN;
+    private ScheduledFuture<?> wakeUp;
+    private LocalDateTime wakeUpAt;
+
+    public ReminderScheduler(TaskStore store, NotificationService notificationService, ReminderLedger ledger) {
+        this(store, notificationService, ledger, Clock.systemDefaultZone());
+    }
 
-    public ReminderScheduler(TaskService taskService, NotificationService notificationService) {
-        this.taskService = taskService;
+    public ReminderScheduler(TaskStore store, NotificationService notificationService, ReminderLedger ledger, Clock clock) {
         this.notificationService = notificationService;
+        this.ledger = ledger;
+        this.clock = clock;
+        ledger.findAll().forEach(e -> lastFired.put(new LedgerKey(e.taskId(), e.kind()), e.firedAt()));
+        store.subscribe(this).forEach(this::track);
     }
 
-    public void start() {
-        executorService.scheduleAtFixedRate(this::check, 2, 60, TimeUnit.SECONDS);
+    public synchronized void start() {
+        started = true;
+        runningSince = LocalDateTime.now(clock);
+        scheduleWakeUp(LocalDateTime.now(clock).plusSeconds(2));
     }
 
-    public void stop() {
+    public synchronized void stop() {
+        started = false;
         executorService.shutdownNow();
     }
 
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
+        if (enabled) reschedule();
+    }
+
+    @Override
+    public void taskChanged(TaskChangeEvent event) {
+        Task task = event.after();
+        if (task == null) {
+            index.remove(event.taskId());
+            evict(event.taskId());
+            return;
+        }
+        track(task);
+        if (task.getStatus() == TaskStatus.DONE) evict(task.getId());
+        reschedule();
     }
 
     void check() {
-        if (!enabled) return;
-        LocalDateTime now = LocalDateTime.now();
-        for (Task task : taskService.listAll()) {
-            if (!task.getReminderSettings().enabled() || task.getStatus() == TaskStatus.DONE || task.getDueDateTime() == null) continue;
-            LocalDateTime remindAt = task.getDueDateTime().minusMinutes(task.getReminderSettings().minutesBeforeDue());
-            boolean overdue = task.getDueDateTime().isBefore(now);
-            if (now.isAfter(remindAt)) {
-                String key = task.getId() + ":" + (overdue ? "overdue" : remindAt.toLocalDate().toString());
-                if (sentReminderKeys.add(key)) {
-                    notificationService.notify(overdue ? "Task overdue" : "Task reminder", task.getTitle());
-                }
+        long tickStarted = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (enabled) {
+            List<ReminderLedger.Entry> fired = new ArrayList<>();
+            for (ReminderIndex.Entry entry : index.pollDue(now)) {
+                fire(entry.task(), now, fired);
+            }
+            synchronized (ledgerLock) {
+                // Tasks deleted or completed since they fired have been evicted, so their entries are gone.
+                fired.removeIf(e -> !e.firedAt().equals(lastFired.get(new LedgerKey(e.taskId(), e.kind()))));
+                ledger.recordAll(fired);
             }
+            firedCounter.add(fired.size());
+        }
+        tickTimer.recordSince(tickStarted);
+        synchronized (this) {
+            wakeUp = null;
+            wakeUpAt = null;
+            if (started) scheduleWakeUp(index.nextFireAt().orElse(now.plus(MAX_SLEEP)));
+        }
+    }
+
+    Optional<LocalDateTime> nextFireAt() {
+        return index.nextFireAt();
+    }
+
+    private void fire(Task task, LocalDateTime now, List<ReminderLedger.Entry> fired) {
+        LocalDateTime fireAt = nextFireAt(task);
+        ReminderLedger.Entry entry = null;
+        if (!fireAt.isAfter(now)) {
+            ReminderLedger.Kind kind = task.getDueDateTime().isAfter(now) ? ReminderLedger.Kind.BEFORE_DUE : ReminderLedger.Kind.OVERDUE;
+            // Reminders that fell due while the app was closed are only late from the moment it started.
+            LocalDateTime intendedAt = fireAt.isBefore(runningSince) ? runningSince : fireAt;
+            notificationService.notify(kind == ReminderLedger.Kind.OVERDUE ? "Task overdue" : "Task due soon", task.getTitle(), intendedAt);
+            entry = new ReminderLedger.Entry(task.getId(), kind, now);
+            lastFired.put(new LedgerKey(task.getId(), kind), now);
+            fired.add(entry);
+            fireAt = nextFireAt(task);
+        }
+        // A change that arrived while the reminder fired has already re-indexed or dropped the task.
+        if (!index.requeue(task, fireAt) && entry != null && !index.contains(task.getId())) {
+            lastFired.remove(new LedgerKey(task.getId(), entry.kind()), now);
+            fired.remove(entry);
         }
     }
+
+    private void track(Task task) {
+        if (task.getId() == null) return;
+        if (!task.getReminderSettings().enabled() || task.getStatus() == TaskStatus.DONE || task.getDueDateTime() == null) {
+            index.remove(task.getId());
+            return;
+        }
+        index.put(task, nextFireAt(task));
+    }
+
+    private LocalDateTime nextFireAt(Task task) {
+        LocalDateTime due = task.getDueDateTime();
+        LocalDateTime lastOverdue = lastFired.get(new LedgerKey(task.getId(), ReminderLedger.Kind.OVERDUE));
+        if (lastOverdue != null && !lastOverdue.isBefore(due)) {
+            return lastOverdue.plusMinutes(task.getReminderSettings().overdueRepeatMinutes());
+        }
+        LocalDateTime remindAt = due.minusMinutes(task.getReminderSettings().minutesBeforeDue());
+        LocalDateTime lastBeforeDue = lastFired.get(new LedgerKey(task.getId(), ReminderLedger.Kind.BEFORE_DUE));
+        return lastBeforeDue != null && !lastBeforeDue.isBefore(remindAt) ? due : remindAt;
+    }
+
+    private void evict(long taskId) {
+        synchronized (ledgerLock) {
+            boolean known = lastFired.remove(new LedgerKey(taskId, ReminderLedger.Kind.BEFORE_DUE)) != null;
+            known |= lastFired.remove(new LedgerKey(taskId, ReminderLedger.Kind.OVERDUE)) != null;
+            if (known) ledger.evict(taskId);
+        }
+    }
+
+    private synchronized void reschedule() {
+        if (!started) return;
+        index.nextFireAt().ifPresent(next -> {
+            if (wakeUpAt == null || next.isBefore(wakeUpAt)) scheduleWakeUp(next);
+        });
+    }
+
+    private void scheduleWakeUp(LocalDateTime at) {
+        if (wakeUp != null) wakeUp.cancel(false);
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime capped = at.isAfter(now.plus(MAX_SLEEP)) ? now.plus(MAX_SLEEP) : at;
+        long delayMillis = Math.max(0, Duration.between(now, capped).toMillis());
+        wakeUpAt = capped;
+        wakeUp = executorService.schedule(this::check, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private record LedgerKey(long taskId, ReminderLedger.Kind kind) {}
 }
@@ -0,0 +1,277 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Priority;
+import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The search box language, parsed into clauses that must all match. Bare words and {@code "quoted phrases"}
+ * match title, summary or tags. {@code tag:}, {@code status:} and {@code priority:} match fields exactly,
+ * ignoring case; a value with spaces can be quoted, as in {@code tag:"side project"}. {@code due:} takes an
+ * optional {@code < <= = >= >} and then {@code today}, {@code tomorrow}, a day or week offset such as
+ * {@code 7d} or {@code -2w}, or an ISO date; it never matches undated tasks. A leading {@code -} negates a
+ * term. Anything else, including a field term with an unknown value, is read as a word, so half-typed input
+ * never fails.
+ *
+ * <p>{@link #parse} caches by text. {@link #predicate} compiles the clauses into one predicate for the
+ * in-memory path and keeps it until the date changes; the SQLite repository compiles the same clauses to SQL.
+ */
+public final class SearchQuery {
+
+    private static final int CACHE_SIZE = 256;
+    private static final Map<String, SearchQuery> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SearchQuery> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final String text;
+    private final List<Clause> clauses;
+    private volatile Compiled compiled;
+
+    private SearchQuery(String text, List<Clause> clauses) {
+        this.text = text;
+        this.clauses = List.copyOf(clauses);
+    }
+
+    public static SearchQuery parse(String text) {
+        synchronized (CACHE) {
+            SearchQuery cached = CACHE.get(text);
+            if (cached != null) return cached;
+        }
+        SearchQuery query = new SearchQuery(text, new Parser(text).clauses());
+        synchronized (CACHE) {
+            CACHE.put(text, query);
+        }
+        return query;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public List<Clause> clauses() {
+        return clauses;
+    }
+
+    /** Whether a word or phrase must be present, which the SQLite repository also looks for in notes. */
+    public boolean hasRequiredText() {
+        return clauses.stream().anyMatch(c -> !c.negated() && (c.term() instanceof Word || c.term() instanceof Phrase));
+    }
+
+    /** Whether the query is only words that must be present, so typing more of it can only narrow the result. */
+    public boolean isPlainWords() {
+        return !clauses.isEmpty() && clauses.stream().allMatch(c -> !c.negated() && c.term() instanceof Word);
+    }
+
+    public Predicate<Task> predicate(LocalDate today) {
+        Compiled current = compiled;
+        if (current == null || !current.today().equals(today)) {
+            current = new Compiled(today, compile(today));
+            compiled = current;
+        }
+        return current.predicate();
+    }
+
+    // One predicate that walks the clauses in order, with due dates already resolved.
+    private Predicate<Task> compile(LocalDate today) {
+        List<Predicate<Task>> parts = new ArrayList<>(clauses.size());
+        for (Clause clause : clauses) {
+            Predicate<Task> part = part(clause.term(), today);
+            parts.add(clause.negated() ? part.negate() : part);
+        }
+        List<Predicate<Task>> fused = List.copyOf(parts);
+        return task -> {
+            for (Predicate<Task> part : fused) {
+                if (!part.test(task)) return false;
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<Task> part(Term term, LocalDate today) {
+        if (term instanceof Word word) return containsText(word.text());
+        if (term instanceof Phrase phrase) return containsText(phrase.text());
+        if (term instanceof TagIs tag) return t -> t.getTags().stream().anyMatch(v -> v.equalsIgnoreCase(tag.tag()));
+        if (term instanceof StatusIs status) return t -> t.getStatus() == status.status();
+        if (term instanceof PriorityIs priority) return t -> t.getPriority() == priority.priority();
+        Due due = (Due) term;
+        LocalDate date = due.date(today);
+        return t -> t.getDueDateTime() != null && due.comparison().test(t.getDueDateTime().toLocalDate().compareTo(date));
+    }
+
+    private static Predicate<Task> containsText(String text) {
+        return t -> containsIgnoreCase(t.getTitle(), text) || containsIgnoreCase(t.getSummary(), text)
+                || t.getTags().stream().anyMatch(tag -> containsIgnoreCase(tag, text));
+    }
+
+    private static boolean containsIgnoreCase(String haystack, String needle) {
+        if (haystack == null) return false;
+        for (int i = 0; i <= haystack.length() - needle.length(); i++) {
+            if (haystack.regionMatches(true, i, needle, 0, needle.length())) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    public record Clause(Term term, boolean negated) {}
+
+    public sealed interface Term permits Word, Phrase, TagIs, StatusIs, PriorityIs, Due {}
+
+    public record Word(String text) implements Term {}
+
+    public record Phrase(String text) implements Term {}
+
+    public record TagIs(String tag) implements Term {}
+
+    public record StatusIs(TaskStatus status) implements Term {}
+
+    public record PriorityIs(Priority priority) implements Term {}
+
+    /** A due date compared with a fixed date, or with today plus {@code days} when {@code date} is null. */
+    public record Due(Comparison comparison, LocalDate date, int days) implements Term {
+        public LocalDate date(LocalDate today) {
+            return date != null ? date : today.plusDays(days);
+        }
+    }
+
+    public enum Comparison {
+        LT("<"), LE("<="), EQ("="), GE(">="), GT(">");
+
+        private final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /** Applies the comparison to the result of {@code due.compareTo(date)}. */
+        public boolean test(int order) {
+            return switch (this) {
+                case LT -> order < 0;
+                case LE -> order <= 0;
+                case EQ -> order == 0;
+                case GE -> order >= 0;
+                case GT -> order > 0;
+            };
+        }
+    }
+
+    private record Compiled(LocalDate today, Predicate<Task> predicate) {}
+
+    private static final class Parser {
+        private final String input;
+        private int pos;
+
+        Parser(String input) {
+            this.input = input == null ? "" : input;
+        }
+
+        List<Clause> clauses() {
+            List<Clause> clauses = new ArrayList<>();
+            while (true) {
+                while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) pos++;
+                if (pos == input.length()) return clauses;
+                boolean negated = input.charAt(pos) == '-' && pos + 1 < input.length() && !Character.isWhitespace(input.charAt(pos + 1));
+                if (negated) pos++;
+                Term term = term();
+                if (term != null) clauses.add(new Clause(term, negated));
+            }
+        }
+
+        private Term term() {
+            if (input.charAt(pos) == '"') {
+                String phrase = quoted();
+                return phrase.isBlank() ? null : new Phrase(phrase);
+            }
+            int start = pos;
+            while (pos < input.length() && !Character.isWhitespace(input.charAt(pos)) && input.charAt(pos) != ':') pos++;
+            if (pos == input.length() || input.charAt(pos) != ':' || pos == start) return word(start);
+            String key = input.substring(start, pos++).toLowerCase(Locale.ROOT);
+            String value;
+            if (pos < input.length() && input.charAt(pos) == '"') {
+                value = quoted();
+            } else {
+                int valueStart = pos;
+                while (pos < input.length() && !Character.isWhitespace(input.charAt(pos))) pos++;
+                value = input.substring(valueStart, pos);
+            }
+            Term field = value.isBlank() ? null : field(key, value.strip());
+            return field != null ? field : new Word(input.substring(start, pos));
+        }
+
+        private Term word(int start) {
+            while (pos < input.length() && !Character.isWhitespace(input.charAt(pos))) pos++;
+            return new Word(input.substring(start, pos));
+        }
+
+        // An unterminated quote runs to the end of the input.
+        private String quoted() {
+            int start = ++pos;
+            while (pos < input.length() && input.charAt(pos) != '"') pos++;
+            String value = input.substring(start, pos);
+            if (pos < input.length()) pos++;
+            return value;
+        }
+
+        private static Term field(String key, String value) {
+            return switch (key) {
+                case "tag" -> new TagIs(value);
+                case "status" -> {
+                    TaskStatus status = constant(TaskStatus.class, value);
+                    yield status == null ? null : new StatusIs(status);
+                }
+                case "priority" -> {
+                    Priority priority = constant(Priority.class, value);
+                    yield priority == null ? null : new PriorityIs(priority);
+                }
+                case "due" -> due(value);
+                default -> null;
+            };
+        }
+
+        private static <E extends Enum<E>> E constant(Class<E> type, String value) {
+            String name = value.toUpperCase(Locale.ROOT).replace('-', '_');
+            for (E constant : type.getEnumConstants()) {
+                if (constant.name().equals(name) || constant.name().replace("_", "").equals(name)) return constant;
+            }
+            return null;
+        }
+
+        private static Due due(String value) {
+            Comparison comparison = Comparison.EQ;
+            for (Comparison candidate : new Comparison[]{Comparison.LE, Comparison.GE, Comparison.LT, Comparison.GT, Comparison.EQ}) {
+                if (value.startsWith(candidate.symbol)) {
+                    comparison = candidate;
+                    value = value.substring(candidate.symbol.length());
+                    break;
+                }
+            }
+            String target = value.toLowerCase(Locale.ROOT);
+            if (target.equals("today")) return new Due(comparison, null, 0);
+            if (target.equals("tomorrow")) return new Due(comparison, null, 1);
+            if (target.matches("[+-]?\\d{1,5}[dw]")) {
+                int amount = Integer.parseInt(target.substring(0, target.length() - 1));
+                return new Due(comparison, null, target.endsWith("w") ? amount * 7 : amount);
+            }
+            try {
+                return new Due(comparison, LocalDate.parse(target), 0);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.tasknotifier.application;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns tag names as dense int ids. Ids are never reused or removed, so an id read from a published
+ * {@link CompactTaskSet} stays valid. One writer adds names; any thread may look them up.
+ */
+public final class TagDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private int size;
+
+    public synchronized int intern(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) return existing;
+        String[] current = names;
+        if (size == current.length) current = Arrays.copyOf(current, size * 2);
+        current[size] = name;
+        // The volatile write publishes the slot before the id becomes visible.
+        names = current;
+        ids.put(name, size);
+        return size++;
+    }
+
+    /** The id of {@code name}, or -1 if it was never interned. */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /** Ids of every interned name equal to {@code name} ignoring case, in no particular order. */
+    public int[] idsIgnoringCase(String name) {
+        return ids.entrySet().stream().filter(e -> e.getKey().equalsIgnoreCase(name)).mapToInt(Map.Entry::getValue).toArray();
+    }
+}
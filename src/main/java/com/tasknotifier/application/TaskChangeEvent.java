@@ -0,0 +1,28 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Task;
+
+/**
+ * A committed change published by {@link TaskStore}. {@code before} is null for created tasks and
+ * {@code after} is null for deleted ones. Both are the store's own copies and must not be modified.
+ */
+public record TaskChangeEvent(Type type, Task before, Task after) {
+
+    public static TaskChangeEvent created(Task after) {
+        return new TaskChangeEvent(Type.CREATED, null, after);
+    }
+
+    public static TaskChangeEvent updated(Task before, Task after) {
+        return new TaskChangeEvent(Type.UPDATED, before, after);
+    }
+
+    public static TaskChangeEvent deleted(Task before) {
+        return new TaskChangeEvent(Type.DELETED, before, null);
+    }
+
+    public long taskId() {
+        return after != null ? after.getId() : before.getId();
+    }
+
+    public enum Type { CREATED, UPDATED, DELETED }
+}
@@ -0,0 +1,5 @@
+package com.tasknotifier.application;
+
+public interface TaskChangeListener {
+    void taskChanged(TaskChangeEvent event);
+}
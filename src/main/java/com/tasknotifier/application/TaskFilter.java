@@ -4,41 +4,189 @@ import com.tasknotifier.domain.Priority;
 import com.tasknotifier.domain.Task;
 import com.tasknotifier.domain.TaskStatus;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 public class TaskFilter {
 
+    /**
+     * List size from which filtering and sorting go parallel; see {@code TaskFilterCrossoverBenchmark}. With a
+     * single fork-join worker nothing is gained, so the default threshold is never reached.
+     */
+    public static final int PARALLEL_THRESHOLD = ForkJoinPool.getCommonPoolParallelism() > 1 ? 50_000 : Integer.MAX_VALUE;
+    // Pages up to this fraction of the matches are picked with a bounded heap instead of a full sort.
+    private static final int TOP_K_FRACTION = 8;
+
+    private final Clock clock;
+    private final int parallelThreshold;
+
+    public TaskFilter() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public TaskFilter(Clock clock) {
+        this(clock, PARALLEL_THRESHOLD);
+    }
+
+    public TaskFilter(Clock clock, int parallelThreshold) {
+        this.clock = clock;
+        this.parallelThreshold = parallelThreshold;
+    }
+
     public List<Task> filter(List<Task> tasks, String search, TaskStatus status, Priority priority, DueRange dueRange, String tag) {
-        LocalDate today = LocalDate.now();
-        return tasks.stream()
-                .filter(t -> status == null || t.getStatus() == status)
-                .filter(t -> priority == null || t.getPriority() == priority)
-                .filter(t -> search == null || search.isBlank() || matchSearch(t, search.toLowerCase()))
-                .filter(t -> tag == null || tag.isBlank() || t.getTags().stream().anyMatch(v -> v.equalsIgnoreCase(tag)))
-                .filter(t -> filterDueRange(t, dueRange, today))
-                .sorted(Comparator.comparing(Task::getDueDateTime, Comparator.nullsLast(Comparator.naturalOrder()))
-                        .thenComparing(Task::getUpdatedAt).reversed())
-                .toList();
-    }
-
-    private boolean matchSearch(Task task, String search) {
-        return task.getTitle().toLowerCase().contains(search)
-                || task.getSummary().toLowerCase().contains(search)
-                || task.getTags().stream().anyMatch(t -> t.toLowerCase().contains(search));
-    }
-
-    private boolean filterDueRange(Task task, DueRange range, LocalDate today) {
-        if (range == null || range == DueRange.ALL || task.getDueDateTime() == null) return true;
-        LocalDate due = task.getDueDateTime().toLocalDate();
-        return switch (range) {
-            case TODAY -> due.isEqual(today);
-            case THIS_WEEK -> !due.isBefore(today) && !due.isAfter(today.plusDays(7));
-            case OVERDUE -> due.isBefore(today);
-            case ALL -> true;
+        return filter(tasks, toQuery(search, status, priority, dueRange, tag));
+    }
+
+    public TaskQuery toQuery(String search, TaskStatus status, Priority priority, DueRange dueRange, String tag) {
+        LocalDate today = LocalDate.now(clock);
+        TaskQuery.Builder query = TaskQuery.builder().status(status).priority(priority).tag(tag).text(search);
+        if (dueRange == null) return query.build();
+        return switch (dueRange) {
+            case TODAY -> query.dueFrom(today).dueTo(today).build();
+            case THIS_WEEK -> query.dueFrom(today).dueTo(today.plusDays(7)).build();
+            case OVERDUE -> query.dueTo(today.minusDays(1)).build();
+            case ALL -> query.build();
+        };
+    }
+
+    /**
+     * Filters, sorts and pages {@code tasks}. Lists at or above the parallel threshold are filtered and sorted
+     * on the common fork-join pool. A page much smaller than the match set is selected without sorting the
+     * rest. Every path returns the same list as a stable sequential sort would.
+     */
+    public List<Task> filter(List<Task> tasks, TaskQuery query) {
+        Predicate<Task> search = query.text() == null ? null : SearchQuery.parse(query.text()).predicate(LocalDate.now(clock));
+        boolean parallel = tasks.size() >= parallelThreshold;
+        List<Task> matches = (parallel ? tasks.parallelStream() : tasks.stream()).filter(t -> matches(t, query, search)).toList();
+        int end = query.limit() == 0 ? matches.size() : (int) Math.min(matches.size(), (long) query.offset() + query.limit());
+        if (query.offset() >= end) return List.of();
+
+        Row[] rows = new Row[matches.size()];
+        if (parallel) Arrays.parallelSetAll(rows, i -> new Row(matches.get(i), i));
+        else Arrays.setAll(rows, i -> new Row(matches.get(i), i));
+        Comparator<Row> order = order(query.sort());
+        if (end <= rows.length / TOP_K_FRACTION) {
+            rows = parallel ? parallelSmallest(rows, end, order) : smallest(rows, 0, rows.length, end, order);
+        } else if (parallel) {
+            Arrays.parallelSort(rows, order);
+        } else {
+            Arrays.sort(rows, order);
+        }
+        List<Task> page = new ArrayList<>(end - query.offset());
+        for (int i = query.offset(); i < end; i++) page.add(rows[i].task);
+        return Collections.unmodifiableList(page);
+    }
+
+    private boolean matches(Task t, TaskQuery query, Predicate<Task> search) {
+        return (query.ids() == null || query.ids().contains(t.getId()))
+                && (query.status() == null || t.getStatus() == query.status())
+                && (query.priority() == null || t.getPriority() == query.priority())
+                && (search == null || search.test(t))
+                && (query.tag() == null || t.getTags().stream().anyMatch(v -> v.equalsIgnoreCase(query.tag())))
+                && filterDueRange(t, query);
+    }
+
+    // Ties fall back to the id, newest first, as in SQLiteTaskRepository; unsaved tasks then keep their position.
+    private static Comparator<Row> order(TaskQuery.Sort sort) {
+        Comparator<Row> byKey = switch (sort) {
+            case DUE_DESC, RELEVANCE -> (a, b) -> {
+                int due = compareDue(b, a);
+                return due != 0 ? due : compareUpdated(b, a);
+            };
+            case DUE_ASC -> (a, b) -> {
+                int due = compareDue(a, b);
+                return due != 0 ? due : compareUpdated(b, a);
+            };
+            case UPDATED_DESC -> (a, b) -> compareUpdated(b, a);
+            case TITLE -> (a, b) -> {
+                int title = String.CASE_INSENSITIVE_ORDER.compare(a.task.getTitle(), b.task.getTitle());
+                return title != 0 ? title : compareUpdated(b, a);
+            };
+        };
+        return (a, b) -> {
+            int key = byKey.compare(a, b);
+            if (key == 0) key = Long.compare(b.id, a.id);
+            return key != 0 ? key : Integer.compare(a.position, b.position);
         };
     }
 
+    private static int compareDue(Row a, Row b) {
+        int seconds = Long.compare(a.dueSeconds, b.dueSeconds);
+        return seconds != 0 ? seconds : Integer.compare(a.dueNanos, b.dueNanos);
+    }
+
+    private static int compareUpdated(Row a, Row b) {
+        int seconds = Long.compare(a.updatedSeconds, b.updatedSeconds);
+        return seconds != 0 ? seconds : Integer.compare(a.updatedNanos, b.updatedNanos);
+    }
+
+    // Each chunk keeps its own best rows; the page is then picked from those candidates.
+    private static Row[] parallelSmallest(Row[] rows, int k, Comparator<Row> order) {
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int chunk = (rows.length + chunks - 1) / chunks;
+        Row[] candidates = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> smallest(rows, Math.min(rows.length, c * chunk), Math.min(rows.length, (c + 1) * chunk), k, order))
+                .flatMap(Arrays::stream)
+                .toArray(Row[]::new);
+        return smallest(candidates, 0, candidates.length, k, order);
+    }
+
+    /** The {@code k} smallest rows of {@code rows[from, to)}, sorted. */
+    private static Row[] smallest(Row[] rows, int from, int to, int k, Comparator<Row> order) {
+        PriorityQueue<Row> largestFirst = new PriorityQueue<>(k + 1, order.reversed());
+        for (int i = from; i < to; i++) {
+            if (largestFirst.size() < k) {
+                largestFirst.add(rows[i]);
+            } else if (order.compare(rows[i], largestFirst.peek()) < 0) {
+                largestFirst.poll();
+                largestFirst.add(rows[i]);
+            }
+        }
+        Row[] best = largestFirst.toArray(new Row[0]);
+        Arrays.sort(best, order);
+        return best;
+    }
+
+    private boolean filterDueRange(Task task, TaskQuery query) {
+        if (!query.hasDueRange() || task.getDueDateTime() == null) return true;
+        if (query.occurringIds() != null && query.occurringIds().contains(task.getId())) return true;
+        LocalDate due = task.getDueDateTime().toLocalDate();
+        return (query.dueFrom() == null || !due.isBefore(query.dueFrom()))
+                && (query.dueTo() == null || !due.isAfter(query.dueTo()));
+    }
+
     public enum DueRange { TODAY, THIS_WEEK, OVERDUE, ALL }
+
+    // Sort keys read once per match instead of on every comparison. A missing due date sorts after every real one.
+    private static final class Row {
+        final Task task;
+        final int position;
+        final long id;
+        final long dueSeconds;
+        final int dueNanos;
+        final long updatedSeconds;
+        final int updatedNanos;
+
+        Row(Task task, int position) {
+            this.task = task;
+            this.position = position;
+            id = task.getId() == null ? Long.MIN_VALUE : task.getId();
+            LocalDateTime due = task.getDueDateTime();
+            dueSeconds = due == null ? Long.MAX_VALUE : due.toEpochSecond(ZoneOffset.UTC);
+            dueNanos = due == null ? 0 : due.getNano();
+            updatedSeconds = task.getUpdatedAt().toEpochSecond(ZoneOffset.UTC);
+            updatedNanos = task.getUpdatedAt().getNano();
+        }
+    }
 }
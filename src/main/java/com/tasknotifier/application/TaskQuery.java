@@ -0,0 +1,90 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Priority;
+import com.tasknotifier.domain.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Criteria for {@link TaskRepository#query}. Null fields do not constrain the result. The due range is
+ * inclusive on both ends and, like the dashboard filters, never excludes tasks without a due date.
+ * A limit of 0 means unlimited, and a non-null {@code ids} set restricts the result to those tasks.
+ * Tasks in {@code occurringIds} pass the due range whatever their current due date, which lets agenda views
+ * include recurring tasks with a later occurrence in range.
+ * {@code text} is a {@link SearchQuery}. The SQLite repository matches its required words as prefixes and its phrases
+ * against the full-text index (including markdown bodies); {@link TaskFilter} does plain substring matching.
+ */
+public record TaskQuery(TaskStatus status,
+                        Priority priority,
+                        LocalDate dueFrom,
+                        LocalDate dueTo,
+                        String tag,
+                        String text,
+                        Sort sort,
+                        int limit,
+                        int offset,
+                        Set<Long> ids,
+                        Set<Long> occurringIds) {
+
+    public TaskQuery {
+        tag = tag == null || tag.isBlank() ? null : tag.trim();
+        text = text == null || text.isBlank() ? null : text;
+        sort = sort == null ? Sort.DUE_DESC : sort;
+        if (limit < 0 || offset < 0) throw new IllegalArgumentException("Limit and offset must not be negative");
+        ids = ids == null ? null : Set.copyOf(ids);
+        occurringIds = occurringIds == null || occurringIds.isEmpty() ? null : Set.copyOf(occurringIds);
+    }
+
+    public static TaskQuery all() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        return builder().status(status).priority(priority).dueFrom(dueFrom).dueTo(dueTo).tag(tag).text(text)
+                .sort(sort).limit(limit).offset(offset).ids(ids).occurringIds(occurringIds);
+    }
+
+    public boolean hasDueRange() {
+        return dueFrom != null || dueTo != null;
+    }
+
+    public enum Sort { DUE_DESC, DUE_ASC, UPDATED_DESC, TITLE, RELEVANCE }
+
+    public static final class Builder {
+        private TaskStatus status;
+        private Priority priority;
+        private LocalDate dueFrom;
+        private LocalDate dueTo;
+        private String tag;
+        private String text;
+        private Sort sort;
+        private int limit;
+        private int offset;
+        private Set<Long> ids;
+        private Set<Long> occurringIds;
+
+        private Builder() {
+        }
+
+        public Builder status(TaskStatus status) { this.status = status; return this; }
+        public Builder priority(Priority priority) { this.priority = priority; return this; }
+        public Builder dueFrom(LocalDate dueFrom) { this.dueFrom = dueFrom; return this; }
+        public Builder dueTo(LocalDate dueTo) { this.dueTo = dueTo; return this; }
+        public Builder tag(String tag) { this.tag = tag; return this; }
+        public Builder text(String text) { this.text = text; return this; }
+        public Builder sort(Sort sort) { this.sort = sort; return this; }
+        public Builder limit(int limit) { this.limit = limit; return this; }
+        public Builder offset(int offset) { this.offset = offset; return this; }
+        public Builder ids(Set<Long> ids) { this.ids = ids; return this; }
+        public Builder occurringIds(Set<Long> occurringIds) { this.occurringIds = occurringIds; return this; }
+
+        public TaskQuery build() {
+            return new TaskQuery(status, priority, dueFrom, dueTo, tag, text, sort, limit, offset, ids, occurringIds);
+        }
+    }
+}
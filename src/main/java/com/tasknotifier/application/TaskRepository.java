@@ -1,13 +1,23 @@
 package com.tasknotifier.application;
 
 import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface TaskRepository {
     Task save(Task task);
+    List<Task> saveAll(List<Task> tasks);
     List<Task> findAll();
+    List<Task> query(TaskQuery query);
     Optional<Task> findById(long id);
     void deleteById(long id);
+    int deleteAllById(Collection<Long> ids);
+    int updateStatusAll(Collection<Long> ids, TaskStatus status, LocalDateTime updatedAt);
+    Map<String, Long> tagCounts();
+    int renameTag(String from, String to);
 }
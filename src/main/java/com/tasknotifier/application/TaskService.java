@@ -1,58 +1,111 @@
 package com.tasknotifier.application;
 
+import com.tasknotifier.domain.RecurrenceRule;
 import com.tasknotifier.domain.Task;
 import com.tasknotifier.domain.TaskStatus;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.LocalDate;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class TaskService {
 
     private final TaskRepository repository;
     private final RecurrenceService recurrenceService;
+    private final Clock clock;
+    private final MetricsRegistry.Timer saveTimer = MetricsRegistry.global().timer("task.save");
 
     public TaskService(TaskRepository repository, RecurrenceService recurrenceService) {
+        this(repository, recurrenceService, Clock.systemDefaultZone());
+    }
+
+    public TaskService(TaskRepository repository, RecurrenceService recurrenceService, Clock clock) {
         this.repository = repository;
         this.recurrenceService = recurrenceService;
+        this.clock = clock;
     }
 
     public Task save(Task task) {
-        task.validate();
-        ensureMarkdownFile(task);
-        task.setUpdatedAt(LocalDateTime.now());
-        return repository.save(task);
+        return saveTimer.time(() -> {
+            task.validate();
+            ensureMarkdownFile(task);
+            task.setUpdatedAt(LocalDateTime.now(clock));
+            return repository.save(task);
+        });
+    }
+
+    public List<Task> saveAll(List<Task> tasks) {
+        tasks.forEach(Task::validate);
+        tasks.forEach(this::ensureMarkdownFile);
+        LocalDateTime now = LocalDateTime.now(clock);
+        tasks.forEach(t -> t.setUpdatedAt(now));
+        return repository.saveAll(tasks);
     }
 
     public List<Task> listAll() {
         return repository.findAll();
     }
 
+    public List<Task> query(TaskQuery query) {
+        return repository.query(query);
+    }
+
+    public Map<String, Long> tagCounts() {
+        return repository.tagCounts();
+    }
+
+    public int renameTag(String from, String to) {
+        if (from == null || from.isBlank() || to == null || to.isBlank()) throw new IllegalArgumentException("Tag names are required");
+        return repository.renameTag(from, to);
+    }
+
     public void delete(long id) {
         repository.deleteById(id);
     }
 
+    public void deleteAll(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        repository.deleteAllById(ids);
+    }
+
     public void markDoneToggle(Task task) {
         task.setStatus(task.getStatus() == TaskStatus.DONE ? TaskStatus.TODO : TaskStatus.DONE);
-        if (task.getStatus() == TaskStatus.DONE && task.getRecurrenceRule().isRecurring() && task.getDueDateTime() != null) {
-            task = new Task(task.getId(), task.getTitle(), task.getSummary(),
-                    recurrenceService.nextOccurrence(task.getDueDateTime(), task.getRecurrenceRule()),
-                    task.getPriority(), TaskStatus.TODO, task.getTags(), task.getMarkdownPath(),
-                    task.getRecurrenceRule(), task.getReminderSettings(), LocalDateTime.now());
+        Task nextInstance = task.getStatus() == TaskStatus.DONE ? nextInstance(task) : null;
+        save(nextInstance == null ? task : nextInstance);
+    }
+
+    public void updateStatusAll(List<Task> tasks, TaskStatus status) {
+        List<Task> rolledForward = new ArrayList<>();
+        List<Task> plain = new ArrayList<>();
+        for (Task task : tasks) {
+            Task nextInstance = status == TaskStatus.DONE ? nextInstance(task) : null;
+            if (nextInstance == null) plain.add(task); else rolledForward.add(nextInstance);
+        }
+        if (!rolledForward.isEmpty()) saveAll(rolledForward);
+        if (plain.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now(clock);
+        repository.updateStatusAll(plain.stream().map(Task::getId).toList(), status, now);
+        for (Task task : plain) {
+            task.setStatus(status);
+            task.setUpdatedAt(now);
         }
-        save(task);
     }
 
-    public DashboardSummary dashboardSummary() {
-        LocalDate now = LocalDate.now();
-        List<Task> pending = listAll().stream().filter(t -> t.getStatus() != TaskStatus.DONE && t.getStatus() != TaskStatus.ARCHIVED).toList();
-        long overdue = pending.stream().filter(t -> t.getDueDateTime() != null && t.getDueDateTime().toLocalDate().isBefore(now)).count();
-        long today = pending.stream().filter(t -> t.getDueDateTime() != null && t.getDueDateTime().toLocalDate().isEqual(now)).count();
-        long upcoming = pending.stream().filter(t -> t.getDueDateTime() != null && t.getDueDateTime().toLocalDate().isAfter(now)).count();
-        return new DashboardSummary(overdue, today, upcoming);
+    private Task nextInstance(Task task) {
+        if (!task.getRecurrenceRule().isRecurring() || task.getDueDateTime() == null) return null;
+        LocalDateTime next = recurrenceService.nextOccurrence(task.getDueDateTime(), task.getRecurrenceRule());
+        if (next == null) return null;
+        RecurrenceRule rule = task.getRecurrenceRule();
+        RecurrenceRule anchored = rule.anchor() == null ? rule.withAnchor(task.getDueDateTime()) : rule;
+        return new Task(task.getId(), task.getTitle(), task.getSummary(), next,
+                task.getPriority(), TaskStatus.TODO, task.getTags(), task.getMarkdownPath(),
+                anchored, task.getReminderSettings(), LocalDateTime.now(clock));
     }
 
     private void ensureMarkdownFile(Task task) {
@@ -64,6 +117,4 @@ public class TaskService {
             throw new IllegalStateException("Unable to create markdown file", e);
         }
     }
-
-    public record DashboardSummary(long overdue, long dueToday, long upcoming) {}
 }
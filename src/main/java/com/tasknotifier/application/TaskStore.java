@@ -0,0 +1,150 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps every task in memory in front of a persistent {@link TaskRepository}. The snapshot is loaded once
+ * into a {@link CompactTaskSet}, so a million tasks fit in a modest heap. Writes go through to the delegate
+ * first and then replace the snapshot wholesale, so readers on any thread see a consistent, immutable view
+ * without locking. Each committed change is published as a {@link TaskChangeEvent}, in commit order, on
+ * the writing thread.
+ *
+ * <p>Reads return new {@link Task} objects, so callers may modify what they get back and save it. Queries
+ * are answered from memory, and only matching rows are turned into tasks, unless their search text requires
+ * a word or phrase. Those go to the delegate, which also searches markdown bodies.
+ */
+public class TaskStore implements TaskRepository {
+
+    private final TaskRepository delegate;
+    private final TaskFilter filter = new TaskFilter();
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile CompactTaskSet snapshot;
+
+    public TaskStore(TaskRepository delegate) {
+        this.delegate = delegate;
+        this.snapshot = CompactTaskSet.of(delegate.findAll());
+    }
+
+    public void addChangeListener(TaskChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /** Registers the listener and returns the tasks it has not seen events for, with no write in between. */
+    public synchronized List<Task> subscribe(TaskChangeListener listener) {
+        listeners.add(listener);
+        return findAll();
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Override
+    public synchronized Task save(Task task) {
+        Task saved = delegate.save(task);
+        commit(List.of(saved.copy()), List.of());
+        return saved;
+    }
+
+    @Override
+    public synchronized List<Task> saveAll(List<Task> tasks) {
+        List<Task> saved = delegate.saveAll(tasks);
+        commit(saved.stream().map(Task::copy).toList(), List.of());
+        return saved;
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return snapshot.tasks();
+    }
+
+    @Override
+    public List<Task> query(TaskQuery query) {
+        // Required words and phrases may match note bodies, which only the full-text index sees.
+        if (query.text() != null && SearchQuery.parse(query.text()).hasRequiredText()) return delegate.query(query);
+        CompactTaskSet current = snapshot;
+        return filter.filter(current.tasks(current.rows(query)), query);
+    }
+
+    @Override
+    public Optional<Task> findById(long id) {
+        return snapshot.findById(id);
+    }
+
+    @Override
+    public void deleteById(long id) {
+        deleteAllById(List.of(id));
+    }
+
+    @Override
+    public synchronized int deleteAllById(Collection<Long> ids) {
+        int deleted = delegate.deleteAllById(ids);
+        commit(List.of(), ids);
+        return deleted;
+    }
+
+    @Override
+    public synchronized int updateStatusAll(Collection<Long> ids, TaskStatus status, LocalDateTime updatedAt) {
+        int updated = delegate.updateStatusAll(ids, status, updatedAt);
+        List<Task> changed = new ArrayList<>();
+        for (Long id : ids) {
+            Task next = snapshot.findById(id).orElse(null);
+            if (next == null) continue;
+            next.setStatus(status);
+            next.setUpdatedAt(updatedAt);
+            changed.add(next);
+        }
+        commit(changed, List.of());
+        return updated;
+    }
+
+    /** Counts for each status, priority and tag under the query's other criteria; text is ignored. */
+    public FacetCounts facets(TaskQuery query) {
+        return snapshot.facets(query);
+    }
+
+    @Override
+    public Map<String, Long> tagCounts() {
+        return snapshot.tagCounts();
+    }
+
+    @Override
+    public synchronized int renameTag(String from, String to) {
+        int renamed = delegate.renameTag(from, to);
+        if (renamed == 0) return 0;
+        // The delegate decides the surviving tag's spelling, so the affected tasks are reloaded in one query.
+        CompactTaskSet current = snapshot;
+        Set<Long> ids = IntStream.concat(IntStream.of(current.rows(TaskQuery.builder().tag(from).build())),
+                        IntStream.of(current.rows(TaskQuery.builder().tag(to).build())))
+                .mapToObj(current::id)
+                .collect(Collectors.toSet());
+        commit(delegate.query(TaskQuery.builder().ids(ids).build()).stream().map(Task::copy).toList(), List.of());
+        return renamed;
+    }
+
+    private void commit(List<Task> saved, Collection<Long> deletedIds) {
+        CompactTaskSet previous = snapshot;
+        List<TaskChangeEvent> events = new ArrayList<>();
+        Map<Long, Task> written = new HashMap<>();
+        for (Task task : saved) {
+            Task before = written.containsKey(task.getId()) ? written.get(task.getId()) : previous.findById(task.getId()).orElse(null);
+            written.put(task.getId(), task);
+            events.add(before == null ? TaskChangeEvent.created(task) : TaskChangeEvent.updated(before, task));
+        }
+        for (Long id : deletedIds) {
+            Task before = written.containsKey(id) ? written.remove(id) : previous.findById(id).orElse(null);
+            if (before != null) events.add(TaskChangeEvent.deleted(before));
+        }
+        snapshot = previous.with(saved, deletedIds);
+        for (TaskChangeEvent event : events) {
+            listeners.forEach(l -> l.taskChanged(event));
+        }
+    }
+}
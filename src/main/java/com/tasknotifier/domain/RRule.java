@@ -0,0 +1,140 @@
+package com.tasknotifier.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * The subset of an RFC 5545 RRULE that task schedules use: FREQ, INTERVAL, BYDAY, BYMONTHDAY, BYSETPOS,
+ * COUNT and UNTIL. Weeks start on Monday. Examples: {@code FREQ=MONTHLY;BYDAY=2TU} (every 2nd Tuesday),
+ * {@code FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR} (weekdays) and {@code FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1}
+ * (last business day of the month).
+ */
+public record RRule(Frequency frequency,
+                    int interval,
+                    List<WeekdayNum> byDay,
+                    List<Integer> byMonthDay,
+                    List<Integer> bySetPos,
+                    Integer count,
+                    LocalDate until) {
+
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    public RRule {
+        if (frequency == null) throw new IllegalArgumentException("RRULE needs FREQ");
+        if (interval < 1) throw new IllegalArgumentException("INTERVAL must be positive");
+        if (count != null && until != null) throw new IllegalArgumentException("COUNT and UNTIL cannot both be set");
+        if (count != null && count < 1) throw new IllegalArgumentException("COUNT must be positive");
+        byDay = List.copyOf(byDay);
+        byMonthDay = List.copyOf(byMonthDay);
+        bySetPos = List.copyOf(bySetPos);
+        for (int day : byMonthDay) {
+            if (day == 0 || day < -31 || day > 31) throw new IllegalArgumentException("Invalid BYMONTHDAY " + day);
+        }
+        for (int pos : bySetPos) {
+            if (pos == 0 || pos < -366 || pos > 366) throw new IllegalArgumentException("Invalid BYSETPOS " + pos);
+        }
+        for (WeekdayNum day : byDay) {
+            if (day.ordinal() != 0 && frequency != Frequency.MONTHLY) {
+                throw new IllegalArgumentException("Numbered BYDAY is only supported with FREQ=MONTHLY");
+            }
+        }
+        if (frequency == Frequency.YEARLY && (!byDay.isEmpty() || !byMonthDay.isEmpty())) {
+            throw new IllegalArgumentException("BYDAY and BYMONTHDAY are not supported with FREQ=YEARLY");
+        }
+    }
+
+    public static RRule parse(String text) {
+        if (text == null || text.isBlank()) throw new IllegalArgumentException("RRULE is empty");
+        String body = text.trim();
+        if (body.regionMatches(true, 0, "RRULE:", 0, 6)) body = body.substring(6);
+
+        Frequency frequency = null;
+        int interval = 1;
+        List<WeekdayNum> byDay = new ArrayList<>();
+        List<Integer> byMonthDay = new ArrayList<>();
+        List<Integer> bySetPos = new ArrayList<>();
+        Integer count = null;
+        LocalDate until = null;
+        for (String part : body.split(";")) {
+            if (part.isBlank()) continue;
+            int eq = part.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Malformed RRULE part: " + part);
+            String name = part.substring(0, eq).trim().toUpperCase(Locale.ROOT);
+            String value = part.substring(eq + 1).trim().toUpperCase(Locale.ROOT);
+            try {
+                switch (name) {
+                    case "FREQ" -> frequency = Frequency.valueOf(value);
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "BYDAY" -> {
+                        for (String day : value.split(",")) byDay.add(WeekdayNum.parse(day.trim()));
+                    }
+                    case "BYMONTHDAY" -> {
+                        for (String day : value.split(",")) byMonthDay.add(Integer.parseInt(day.trim()));
+                    }
+                    case "BYSETPOS" -> {
+                        for (String pos : value.split(",")) bySetPos.add(Integer.parseInt(pos.trim()));
+                    }
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = LocalDate.parse(value.length() > 8 ? value.substring(0, 8) : value, UNTIL_DATE);
+                    case "WKST" -> {
+                        if (!value.equals("MO")) throw new IllegalArgumentException("Only WKST=MO is supported");
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported RRULE part: " + name);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid RRULE value: " + part, e);
+            }
+        }
+        return new RRule(frequency, interval, byDay, byMonthDay, bySetPos, count, until);
+    }
+
+    public static RRule of(RecurrenceType type) {
+        Frequency frequency = switch (type) {
+            case DAILY -> Frequency.DAILY;
+            case WEEKLY -> Frequency.WEEKLY;
+            case MONTHLY -> Frequency.MONTHLY;
+            case NONE, CUSTOM -> throw new IllegalArgumentException(type + " has no fixed RRULE");
+        };
+        return new RRule(frequency, 1, List.of(), List.of(), List.of(), null, null);
+    }
+
+    public String format() {
+        StringJoiner text = new StringJoiner(";");
+        text.add("FREQ=" + frequency);
+        if (interval != 1) text.add("INTERVAL=" + interval);
+        if (!byDay.isEmpty()) text.add("BYDAY=" + String.join(",", byDay.stream().map(WeekdayNum::format).toList()));
+        if (!byMonthDay.isEmpty()) text.add("BYMONTHDAY=" + String.join(",", byMonthDay.stream().map(String::valueOf).toList()));
+        if (!bySetPos.isEmpty()) text.add("BYSETPOS=" + String.join(",", bySetPos.stream().map(String::valueOf).toList()));
+        if (count != null) text.add("COUNT=" + count);
+        if (until != null) text.add("UNTIL=" + until.format(UNTIL_DATE));
+        return text.toString();
+    }
+
+    public enum Frequency { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+    /** A BYDAY entry; {@code ordinal} is 0 for every such weekday, 1..5 or -1..-5 for the nth in the month. */
+    public record WeekdayNum(int ordinal, DayOfWeek day) {
+
+        private static final List<String> CODES = List.of("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+
+        static WeekdayNum parse(String text) {
+            if (text.length() < 2) throw new IllegalArgumentException("Invalid BYDAY " + text);
+            int index = CODES.indexOf(text.substring(text.length() - 2));
+            if (index < 0) throw new IllegalArgumentException("Invalid BYDAY " + text);
+            String number = text.substring(0, text.length() - 2);
+            int ordinal = number.isEmpty() ? 0 : Integer.parseInt(number.startsWith("+") ? number.substring(1) : number);
+            if (ordinal < -5 || ordinal > 5) throw new IllegalArgumentException("Invalid BYDAY " + text);
+            return new WeekdayNum(ordinal, DayOfWeek.of(index + 1));
+        }
+
+        String format() {
+            return (ordinal == 0 ? "" : String.valueOf(ordinal)) + CODES.get(day.getValue() - 1);
+        }
+    }
+}
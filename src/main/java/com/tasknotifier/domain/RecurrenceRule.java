@@ -1,20 +1,52 @@
 package com.tasknotifier.domain;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
-public record RecurrenceRule(RecurrenceType type, LocalDate endDate, Set<LocalDate> skippedDates) {
+/**
+ * {@code anchor} is the first due date of the series; occurrences are counted from it so monthly rules
+ * do not drift after a short month. A null anchor means the task's current due date starts the series.
+ * {@code rrule} holds the RFC 5545 rule text for {@link RecurrenceType#CUSTOM} and is null otherwise.
+ */
+public record RecurrenceRule(RecurrenceType type, LocalDate endDate, Set<LocalDate> skippedDates, LocalDateTime anchor, String rrule) {
 
     public RecurrenceRule {
         skippedDates = skippedDates == null ? new HashSet<>() : skippedDates;
+        if (type == RecurrenceType.CUSTOM) {
+            rrule = RRule.parse(rrule).format();
+        } else {
+            rrule = null;
+        }
+    }
+
+    public RecurrenceRule(RecurrenceType type, LocalDate endDate, Set<LocalDate> skippedDates) {
+        this(type, endDate, skippedDates, null, null);
+    }
+
+    public RecurrenceRule(RecurrenceType type, LocalDate endDate, Set<LocalDate> skippedDates, LocalDateTime anchor) {
+        this(type, endDate, skippedDates, anchor, null);
     }
 
     public static RecurrenceRule none() {
         return new RecurrenceRule(RecurrenceType.NONE, null, new HashSet<>());
     }
 
+    public static RecurrenceRule custom(String rrule, LocalDate endDate, Set<LocalDate> skippedDates) {
+        return new RecurrenceRule(RecurrenceType.CUSTOM, endDate, skippedDates, null, rrule);
+    }
+
     public boolean isRecurring() {
         return type != RecurrenceType.NONE;
     }
+
+    /** The rule as an RRULE; the fixed types map to their plain FREQ equivalent. */
+    public RRule toRRule() {
+        return type == RecurrenceType.CUSTOM ? RRule.parse(rrule) : RRule.of(type);
+    }
+
+    public RecurrenceRule withAnchor(LocalDateTime anchor) {
+        return new RecurrenceRule(type, endDate, skippedDates, anchor, rrule);
+    }
 }
@@ -4,5 +4,6 @@ public enum RecurrenceType {
     NONE,
     DAILY,
     WEEKLY,
-    MONTHLY
+    MONTHLY,
+    CUSTOM
 }
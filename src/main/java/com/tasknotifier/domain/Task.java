@@ -2,6 +2,7 @@ package com.tasknotifier.domain;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 
@@ -52,6 +53,13 @@ public class Task {
         }
     }
 
+    public Task copy() {
+        RecurrenceRule rule = new RecurrenceRule(recurrenceRule.type(), recurrenceRule.endDate(),
+                new HashSet<>(recurrenceRule.skippedDates()), recurrenceRule.anchor(), recurrenceRule.rrule());
+        return new Task(id, title, summary, dueDateTime, priority, status, new ArrayList<>(tags), markdownPath, rule,
+                reminderSettings, updatedAt);
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getTitle() { return title; }
@@ -60,6 +68,7 @@ public class Task {
     public Priority getPriority() { return priority; }
     public TaskStatus getStatus() { return status; }
     public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
     public String getMarkdownPath() { return markdownPath; }
     public RecurrenceRule getRecurrenceRule() { return recurrenceRule; }
     public ReminderSettings getReminderSettings() { return reminderSettings; }
@@ -5,13 +5,45 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class DatabaseManager {
+/**
+ * Owns the SQLite connections: one long-lived writer guarded by a lock and a small pool of readers.
+ * The database runs in WAL mode, so readers never wait on the writer. Each connection caches its most
+ * recently used prepared statements and closes the ones it evicts, since query SQL varies with the search.
+ */
+public class DatabaseManager implements AutoCloseable {
+
+    private static final int READER_POOL_SIZE = 3;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(2, DatabaseManager::createSearchIndex),
+            new Migration(3, DatabaseManager::normalizeTags),
+            new Migration(4, DatabaseManager::addRecurrenceAnchor),
+            new Migration(5, DatabaseManager::addRecurrenceRrule),
+            new Migration(6, DatabaseManager::createOccurrences)
+    );
 
     private final String jdbcUrl;
     private final Path dbPath;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<Session> idleReaders = new ArrayBlockingQueue<>(READER_POOL_SIZE);
+    private final List<Session> openSessions = new ArrayList<>();
+    private Session writer;
+    private int readerCount;
+    private boolean directoryReady;
+    private boolean closed;
 
     public DatabaseManager(Path dbPath) {
         this.dbPath = dbPath.toAbsolutePath();
@@ -20,11 +52,56 @@ public class DatabaseManager {
 
     public Connection connection() throws SQLException {
         ensureParentDirectoryExists();
-        return DriverManager.getConnection(jdbcUrl);
+        Connection conn = DriverManager.getConnection(jdbcUrl);
+        applyPragmas(conn);
+        return conn;
+    }
+
+    public <T> T read(Work<T> work) {
+        Session session = acquireReader();
+        try {
+            return work.execute(session);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            idleReaders.offer(session);
+        }
+    }
+
+    public <T> T write(Work<T> work) {
+        writeLock.lock();
+        try {
+            Session session = writer();
+            if (writeLock.getHoldCount() > 1) return work.execute(session);
+            Connection conn = session.connection();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.execute(session);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public void migrate() {
-        try (Connection conn = connection(); Statement st = conn.createStatement()) {
+        try {
+            write(this::applySchema);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Database unavailable or corrupt. Please verify the database file.", e.getCause());
+        }
+    }
+
+    private Void applySchema(Session session) throws SQLException {
+        try (Statement st = session.connection().createStatement()) {
             st.executeUpdate("""
                 CREATE TABLE IF NOT EXISTS schema_version(version INTEGER PRIMARY KEY);
                 """);
@@ -58,18 +135,314 @@ public class DatabaseManager {
                     value TEXT NOT NULL
                 );
                 """);
+            st.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS reminder_ledger (
+                    task_id INTEGER NOT NULL,
+                    kind TEXT NOT NULL,
+                    fired_at TEXT NOT NULL,
+                    PRIMARY KEY (task_id, kind)
+                );
+                """);
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_status ON tasks(status)");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_priority ON tasks(priority)");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_due_date_time ON tasks(due_date_time)");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_updated_at ON tasks(updated_at)");
+            st.executeUpdate("DELETE FROM reminder_ledger WHERE task_id NOT IN (SELECT id FROM tasks)");
+
+            int current;
+            try (ResultSet rs = st.executeQuery("SELECT MAX(version) FROM schema_version")) {
+                current = rs.next() ? rs.getInt(1) : 1;
+            }
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version() <= current) continue;
+                migration.step().apply(st);
+                st.executeUpdate("INSERT INTO schema_version(version) VALUES (" + migration.version() + ")");
+            }
+        }
+        return null;
+    }
+
+    private static void createSearchIndex(Statement st) throws SQLException {
+        st.executeUpdate("""
+            CREATE VIRTUAL TABLE IF NOT EXISTS task_search USING fts5(
+                title, summary, tags, body,
+                tokenize = 'unicode61 remove_diacritics 2',
+                prefix = '2 3'
+            );
+            """);
+        st.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS markdown_index (
+                task_id INTEGER PRIMARY KEY,
+                path TEXT NOT NULL,
+                modified_at INTEGER NOT NULL,
+                size INTEGER NOT NULL
+            );
+            """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS tasks_search_insert AFTER INSERT ON tasks BEGIN
+                INSERT INTO task_search(rowid, title, summary, tags, body)
+                VALUES (new.id, new.title, new.summary, replace(new.tags, '|', ' '), '');
+            END;
+            """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS tasks_search_update AFTER UPDATE OF title, summary, tags ON tasks BEGIN
+                UPDATE task_search SET title = new.title, summary = new.summary, tags = replace(new.tags, '|', ' ')
+                WHERE rowid = new.id;
+            END;
+            """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS tasks_search_relink AFTER UPDATE OF markdown_path ON tasks
+            WHEN old.markdown_path <> new.markdown_path BEGIN
+                DELETE FROM markdown_index WHERE task_id = new.id;
+            END;
+            """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS tasks_search_delete AFTER DELETE ON tasks BEGIN
+                DELETE FROM task_search WHERE rowid = old.id;
+                DELETE FROM markdown_index WHERE task_id = old.id;
+            END;
+            """);
+        st.executeUpdate("""
+            INSERT INTO task_search(rowid, title, summary, tags, body)
+            SELECT id, title, summary, replace(tags, '|', ' '), '' FROM tasks
+            """);
+    }
+
+    // Recurring tasks count occurrences from the first due date instead of stepping from the last one.
+    private static void addRecurrenceAnchor(Statement st) throws SQLException {
+        st.executeUpdate("ALTER TABLE tasks ADD COLUMN recurrence_anchor TEXT");
+        st.executeUpdate("UPDATE tasks SET recurrence_anchor = due_date_time WHERE recurrence_type <> 'NONE'");
+    }
+
+    private static void addRecurrenceRrule(Statement st) throws SQLException {
+        st.executeUpdate("ALTER TABLE tasks ADD COLUMN recurrence_rrule TEXT");
+    }
+
+    // Upcoming occurrences of open tasks, filled by OccurrenceMaterializer; agenda ranges scan idx_task_occurrences_occurs_at.
+    private static void createOccurrences(Statement st) throws SQLException {
+        st.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS task_occurrences (
+                task_id INTEGER NOT NULL,
+                occurs_at TEXT NOT NULL,
+                PRIMARY KEY (task_id, occurs_at)
+            ) WITHOUT ROWID;
+            """);
+        st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_task_occurrences_occurs_at ON task_occurrences(occurs_at, task_id)");
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS tasks_occurrences_delete AFTER DELETE ON tasks BEGIN
+                DELETE FROM task_occurrences WHERE task_id = old.id;
+            END;
+            """);
+    }
+
+    private static void normalizeTags(Statement st) throws SQLException {
+        st.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS tags (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                name TEXT NOT NULL UNIQUE COLLATE NOCASE
+            );
+            """);
+        st.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS task_tags (
+                task_id INTEGER NOT NULL,
+                tag_id INTEGER NOT NULL,
+                position INTEGER NOT NULL,
+                PRIMARY KEY (task_id, tag_id)
+            );
+            """);
+        st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_task_tags_tag ON task_tags(tag_id, task_id)");
+
+        try (ResultSet rs = st.executeQuery("SELECT id, tags FROM tasks WHERE tags IS NOT NULL AND tags <> ''");
+             PreparedStatement tag = st.getConnection().prepareStatement("INSERT OR IGNORE INTO tags(name) VALUES (?)");
+             PreparedStatement link = st.getConnection().prepareStatement(
+                     "INSERT OR IGNORE INTO task_tags(task_id, tag_id, position) SELECT ?, id, ? FROM tags WHERE name = ?")) {
+            while (rs.next()) {
+                int position = 0;
+                for (String name : rs.getString("tags").split("\\|")) {
+                    if (name.isBlank()) continue;
+                    tag.setString(1, name.trim());
+                    tag.executeUpdate();
+                    link.setLong(1, rs.getLong("id"));
+                    link.setInt(2, position++);
+                    link.setString(3, name.trim());
+                    link.executeUpdate();
+                }
+            }
+        }
+        st.executeUpdate("UPDATE tasks SET tags = NULL");
+
+        String tagText = "(SELECT group_concat(g.name, ' ') FROM task_tags tt JOIN tags g ON g.id = tt.tag_id WHERE tt.task_id = %s)";
+        st.executeUpdate("DROP TRIGGER IF EXISTS tasks_search_insert");
+        st.executeUpdate("DROP TRIGGER IF EXISTS tasks_search_update");
+        st.executeUpdate("""
+            CREATE TRIGGER tasks_search_insert AFTER INSERT ON tasks BEGIN
+                INSERT INTO task_search(rowid, title, summary, tags, body) VALUES (new.id, new.title, new.summary, '', '');
+            END;
+            """);
+        st.executeUpdate("""
+            CREATE TRIGGER tasks_search_update AFTER UPDATE OF title, summary ON tasks BEGIN
+                UPDATE task_search SET title = new.title, summary = new.summary WHERE rowid = new.id;
+            END;
+            """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS tasks_tags_delete AFTER DELETE ON tasks BEGIN
+                DELETE FROM task_tags WHERE task_id = old.id;
+            END;
+            """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS task_tags_search_insert AFTER INSERT ON task_tags BEGIN
+                UPDATE task_search SET tags = %s WHERE rowid = new.task_id;
+            END;
+            """.formatted(tagText.formatted("new.task_id")));
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS task_tags_search_update AFTER UPDATE ON task_tags BEGIN
+                UPDATE task_search SET tags = %s WHERE rowid = new.task_id;
+            END;
+            """.formatted(tagText.formatted("new.task_id")));
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS task_tags_search_delete AFTER DELETE ON task_tags BEGIN
+                UPDATE task_search SET tags = %s WHERE rowid = old.task_id;
+            END;
+            """.formatted(tagText.formatted("old.task_id")));
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS tags_search_rename AFTER UPDATE OF name ON tags BEGIN
+                UPDATE task_search SET tags = %s
+                WHERE rowid IN (SELECT task_id FROM task_tags WHERE tag_id = new.id);
+            END;
+            """.formatted(tagText.formatted("task_search.rowid")));
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Session session : openSessions) session.close();
+        openSessions.clear();
+        idleReaders.clear();
+        writer = null;
+    }
+
+    private synchronized Session writer() throws SQLException {
+        if (writer == null) writer = open(false);
+        return writer;
+    }
+
+    private Session acquireReader() {
+        Session session = idleReaders.poll();
+        if (session != null) return session;
+        try {
+            synchronized (this) {
+                if (readerCount < READER_POOL_SIZE) {
+                    readerCount++;
+                    return open(true);
+                }
+            }
+            return idleReaders.take();
         } catch (SQLException e) {
             throw new IllegalStateException("Database unavailable or corrupt. Please verify the database file.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private Session open(boolean readOnly) throws SQLException {
+        if (closed) throw new IllegalStateException("Database manager is closed");
+        Connection conn = connection();
+        if (readOnly) {
+            try (Statement st = conn.createStatement()) {
+                st.execute("PRAGMA query_only = ON");
+            }
+        }
+        Session session = new Session(conn);
+        openSessions.add(session);
+        return session;
+    }
+
+    private void applyPragmas(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA journal_mode = WAL");
+            st.execute("PRAGMA synchronous = NORMAL");
+            st.execute("PRAGMA busy_timeout = 5000");
+            st.execute("PRAGMA cache_size = -16000");
+            st.execute("PRAGMA mmap_size = 268435456");
+            st.execute("PRAGMA temp_store = MEMORY");
         }
     }
 
-    private void ensureParentDirectoryExists() {
+    private synchronized void ensureParentDirectoryExists() {
+        if (directoryReady) return;
         Path parent = dbPath.getParent();
-        if (parent == null) return;
-        try {
-            Files.createDirectories(parent);
-        } catch (IOException e) {
-            throw new IllegalStateException("Cannot create database directory: " + parent, e);
+        if (parent != null) {
+            try {
+                Files.createDirectories(parent);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create database directory: " + parent, e);
+            }
+        }
+        directoryReady = true;
+    }
+
+    private record Migration(int version, Step step) {}
+
+    @FunctionalInterface
+    private interface Step {
+        void apply(Statement st) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(Session session) throws SQLException;
+    }
+
+    public static final class Session {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= STATEMENT_CACHE_SIZE) return false;
+                try {
+                    eldest.getValue().close();
+                } catch (SQLException ignored) {
+                }
+                return true;
+            }
+        };
+        private final Map<String, PreparedStatement> insertStatements = new HashMap<>();
+
+        private Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps == null) {
+                ps = connection.prepareStatement(sql);
+                statements.put(sql, ps);
+            }
+            ps.clearParameters();
+            return ps;
+        }
+
+        public PreparedStatement prepareInsert(String sql) throws SQLException {
+            PreparedStatement ps = insertStatements.get(sql);
+            if (ps == null) {
+                ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                insertStatements.put(sql, ps);
+            }
+            ps.clearParameters();
+            return ps;
+        }
+
+        private void close() {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.MetricsRegistry;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes every metric of a {@link MetricsRegistry} as a platform MXBean named
+ * {@code com.tasknotifier:type=Timer|Counter,name=<metric>}, including metrics created after start,
+ * so JConsole, VisualVM or JMC can read them from the local process.
+ */
+public class JmxMetricsExporter implements MetricsRegistry.Listener {
+
+    static final String DOMAIN = "com.tasknotifier";
+
+    private final MetricsRegistry registry;
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+    public JmxMetricsExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void start() {
+        registry.subscribe(this);
+    }
+
+    public void stop() {
+        registry.unsubscribe(this);
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException ignored) {
+            }
+        }
+        registered.clear();
+    }
+
+    @Override
+    public void timerAdded(String name, MetricsRegistry.Timer timer) {
+        register("Timer", name, new TimerBean(timer));
+    }
+
+    @Override
+    public void counterAdded(String name, MetricsRegistry.Counter counter) {
+        register("Counter", name, (CounterMXBean) counter::count);
+    }
+
+    static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+
+    private void register(String type, String name, Object bean) {
+        try {
+            ObjectName objectName = objectName(type, name);
+            if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+            server.registerMBean(bean, objectName);
+            registered.add(objectName);
+        } catch (JMException ignored) {
+        }
+    }
+
+    public interface TimerMXBean {
+        long getCount();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP99Millis();
+        double getMaxMillis();
+        void reset();
+    }
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    private record TimerBean(MetricsRegistry.Timer timer) implements TimerMXBean {
+        private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+        @Override public long getCount() { return timer.snapshot().count(); }
+        @Override public double getMeanMillis() { return timer.snapshot().meanNanos() / NANOS_PER_MILLI; }
+        @Override public double getP50Millis() { return timer.snapshot().p50Nanos() / NANOS_PER_MILLI; }
+        @Override public double getP99Millis() { return timer.snapshot().p99Nanos() / NANOS_PER_MILLI; }
+        @Override public double getMaxMillis() { return timer.snapshot().maxNanos() / NANOS_PER_MILLI; }
+        @Override public void reset() { timer.reset(); }
+    }
+}
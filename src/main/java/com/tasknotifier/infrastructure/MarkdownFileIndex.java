@@ -0,0 +1,262 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.TaskChangeEvent;
+import com.tasknotifier.application.MetricsRegistry;
+import com.tasknotifier.application.TaskChangeListener;
+import com.tasknotifier.domain.Task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Tracks existence, size, modification time and content hash of every task's markdown file. The folders
+ * holding those files are watched with a {@link WatchService}; only files named in events are re-read, so
+ * the folder is never rescanned. Lookups are plain map reads and are safe on the FX thread.
+ *
+ * <p>A tracked file that disappears keeps its last hash. If a markdown file with the same content shows up
+ * in a watched folder, it is offered as a relink suggestion, which covers renames and moves between folders.
+ */
+public class MarkdownFileIndex implements TaskChangeListener {
+
+    private static final MetricsRegistry.Timer HASH_TIMER = MetricsRegistry.global().timer("markdown.read.hash");
+
+    private final Path root;
+    private final Map<Path, FileState> files = new ConcurrentHashMap<>();
+    private final Map<Path, Set<Long>> tasksByPath = new ConcurrentHashMap<>();
+    private final Map<Long, Path> pathByTask = new ConcurrentHashMap<>();
+    private final Map<String, Path> untrackedByHash = new ConcurrentHashMap<>();
+    private final Map<Path, String> untrackedHashes = new ConcurrentHashMap<>();
+    private final Set<Path> watchedDirectories = new HashSet<>();
+    private final List<Consumer<Set<Long>>> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "markdown-file-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private WatchService watchService;
+    private Thread watcher;
+
+    public MarkdownFileIndex(Path root) {
+        this.root = normalize(root);
+    }
+
+    public void start(Collection<Task> tasks) {
+        try {
+            watchService = root.getFileSystem().newWatchService();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to watch markdown folder", e);
+        }
+        List<Task> initial = List.copyOf(tasks);
+        executorService.execute(() -> {
+            register(root);
+            initial.forEach(this::track);
+        });
+        watcher = new Thread(this::watch, "markdown-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public void stop() {
+        if (watcher != null) watcher.interrupt();
+        executorService.shutdownNow();
+        try {
+            if (watchService != null) watchService.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /** Receives the ids of tasks whose markdown file was created, changed or removed. Called on the index thread. */
+    public void addChangeListener(Consumer<Set<Long>> listener) {
+        listeners.add(listener);
+    }
+
+    public Optional<FileState> state(String pathValue) {
+        Path path = normalizeOrNull(pathValue);
+        return path == null ? Optional.empty() : Optional.ofNullable(files.get(path));
+    }
+
+    public boolean isMissing(String pathValue) {
+        return state(pathValue).map(s -> !s.exists()).orElse(false);
+    }
+
+    public Optional<Path> relinkSuggestion(String pathValue) {
+        return state(pathValue)
+                .filter(s -> !s.exists() && s.hash() != null)
+                .map(s -> untrackedByHash.get(s.hash()));
+    }
+
+    @Override
+    public void taskChanged(TaskChangeEvent event) {
+        Task task = event.after();
+        executorService.execute(() -> {
+            if (task == null) {
+                untrack(event.taskId());
+            } else if (track(task)) {
+                notifyListeners(Set.of(task.getId()));
+            }
+        });
+    }
+
+    // Waits until everything submitted so far has been processed.
+    void flush() throws Exception {
+        executorService.submit(() -> { }).get(10, TimeUnit.SECONDS);
+    }
+
+    private boolean track(Task task) {
+        Path path = normalizeOrNull(task.getMarkdownPath());
+        Path previous = pathByTask.get(task.getId());
+        if (Objects.equals(path, previous)) return path != null && refresh(path);
+        untrack(task.getId());
+        if (path == null) return false;
+        pathByTask.put(task.getId(), path);
+        tasksByPath.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(task.getId());
+        forgetUntracked(path);
+        if (path.getParent() != null) register(path.getParent());
+        return refresh(path);
+    }
+
+    private void untrack(long taskId) {
+        Path path = pathByTask.remove(taskId);
+        if (path == null) return;
+        Set<Long> owners = tasksByPath.get(path);
+        if (owners != null) owners.remove(taskId);
+        if (owners == null || owners.isEmpty()) {
+            tasksByPath.remove(path);
+            FileState state = files.remove(path);
+            if (state != null && state.exists()) rememberUntracked(path);
+        }
+    }
+
+    private boolean refresh(Path path) {
+        FileState previous = files.get(path);
+        FileState current = stat(path, previous);
+        if (current.equals(previous)) return false;
+        files.put(path, current);
+        return true;
+    }
+
+    private FileState stat(Path path, FileState previous) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long modifiedAt = attributes.lastModifiedTime().toMillis();
+            if (previous != null && previous.exists() && previous.modifiedAt() == modifiedAt && previous.size() == attributes.size()) {
+                return previous;
+            }
+            return new FileState(true, attributes.size(), modifiedAt, hash(path));
+        } catch (IOException | RuntimeException e) {
+            return new FileState(false, -1, -1, previous == null ? null : previous.hash());
+        }
+    }
+
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = (Path) key.watchable();
+            List<WatchEvent<?>> events = key.pollEvents();
+            key.reset();
+            try {
+                executorService.execute(() -> handle(directory, events));
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Path directory, List<WatchEvent<?>> events) {
+        Set<Path> touched = new LinkedHashSet<>();
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                tasksByPath.keySet().stream().filter(p -> directory.equals(p.getParent())).forEach(touched::add);
+            } else {
+                touched.add(directory.resolve((Path) event.context()));
+            }
+        }
+
+        Set<Long> changed = new HashSet<>();
+        for (Path path : touched) {
+            Set<Long> owners = tasksByPath.get(path);
+            if (owners != null) {
+                if (refresh(path)) changed.addAll(owners);
+            } else if (path.getFileName().toString().endsWith(".md")) {
+                forgetUntracked(path);
+                if (Files.isRegularFile(path)) rememberUntracked(path);
+            }
+        }
+        if (!changed.isEmpty()) notifyListeners(changed);
+    }
+
+    private void rememberUntracked(Path path) {
+        try {
+            String hash = hash(path);
+            untrackedHashes.put(path, hash);
+            untrackedByHash.put(hash, path);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    private void forgetUntracked(Path path) {
+        String hash = untrackedHashes.remove(path);
+        if (hash != null) untrackedByHash.remove(hash, path);
+    }
+
+    private void register(Path directory) {
+        if (watchedDirectories.contains(directory) || !Files.isDirectory(directory)) return;
+        try {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.add(directory);
+        } catch (IOException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private void notifyListeners(Set<Long> taskIds) {
+        for (Consumer<Set<Long>> listener : listeners) {
+            try {
+                listener.accept(taskIds);
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
+    private static String hash(Path path) {
+        long started = System.nanoTime();
+        try (InputStream in = Files.newInputStream(path)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) digest.update(buffer, 0, read);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash " + path, e);
+        } finally {
+            HASH_TIMER.recordSince(started);
+        }
+    }
+
+    private static Path normalizeOrNull(String pathValue) {
+        if (pathValue == null || pathValue.isBlank()) return null;
+        try {
+            return normalize(Path.of(pathValue));
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    public record FileState(boolean exists, long size, long modifiedAt, String hash) {}
+}
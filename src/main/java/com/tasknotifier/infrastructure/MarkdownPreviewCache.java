@@ -0,0 +1,101 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tooltip previews of markdown notes. Only the first {@link #MAX_PREVIEW_BYTES} of a file are read, and
+ * results are kept in a small LRU cache that is revalidated against the file's modification time and size.
+ * Calls do file I/O and belong on a background thread.
+ */
+public class MarkdownPreviewCache {
+
+    static final int MAX_PREVIEW_BYTES = 4 * 1024;
+
+    private final Map<Path, Preview> cache;
+    private final MetricsRegistry.Timer readTimer = MetricsRegistry.global().timer("markdown.read.preview");
+
+    public MarkdownPreviewCache(int capacity) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Preview> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public String preview(String pathValue) {
+        Path path;
+        BasicFileAttributes attributes;
+        try {
+            path = Path.of(pathValue);
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return "File not found:\n" + pathValue;
+        } catch (IOException | RuntimeException e) {
+            return "Unable to read file preview.";
+        }
+
+        long modifiedAt = attributes.lastModifiedTime().toMillis();
+        synchronized (cache) {
+            Preview cached = cache.get(path);
+            if (cached != null && cached.modifiedAt() == modifiedAt && cached.size() == attributes.size()) return cached.text();
+        }
+
+        String text;
+        long started = System.nanoTime();
+        try {
+            text = read(path, attributes.size());
+        } catch (IOException | RuntimeException e) {
+            return "Unable to read file preview.";
+        } finally {
+            readTimer.recordSince(started);
+        }
+        synchronized (cache) {
+            cache.put(path, new Preview(modifiedAt, attributes.size(), text));
+        }
+        return text;
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private String read(Path path, long size) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(size, MAX_PREVIEW_BYTES));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+            }
+        }
+        bytes.flip();
+        boolean truncated = size > bytes.limit();
+
+        // With endOfInput=false a multi-byte character cut off at the end of the buffer is left undecoded.
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(bytes.limit());
+        decoder.decode(bytes, chars, !truncated);
+        String content = chars.flip().toString();
+        if (truncated) return content + "\n\n...";
+        return content.isBlank() ? "(Empty file)" : content;
+    }
+
+    private record Preview(long modifiedAt, long size, String text) {}
+}
@@ -0,0 +1,131 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Copies markdown note bodies into the {@code task_search} full-text index. A file is re-read only when
+ * its modification time or size differs from what {@code markdown_index} recorded for the task. After a
+ * single catch-up pass on start, reindexing is driven by {@link MarkdownFileIndex} change events.
+ */
+public class MarkdownSearchIndexer {
+
+    private static final int MAX_BODY_BYTES = 256 * 1024;
+
+    private final DatabaseManager db;
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+    private final MetricsRegistry.Timer readTimer = MetricsRegistry.global().timer("markdown.read.index");
+
+    public MarkdownSearchIndexer(DatabaseManager db) {
+        this.db = db;
+    }
+
+    public void start() {
+        executorService.schedule(() -> reindexQuietly(null), 3, TimeUnit.SECONDS);
+    }
+
+    public void filesChanged(Set<Long> taskIds) {
+        executorService.execute(() -> reindexQuietly(taskIds));
+    }
+
+    public void stop() {
+        executorService.shutdownNow();
+    }
+
+    public int reindexStale() {
+        return reindex(null);
+    }
+
+    public int reindex(Collection<Long> taskIds) {
+        List<IndexedFile> known = db.read(session -> {
+            String sql = """
+                    SELECT t.id, t.markdown_path, m.modified_at, m.size
+                    FROM tasks t LEFT JOIN markdown_index m ON m.task_id = t.id
+                    """ + (taskIds == null ? "" : " WHERE t.id IN (SELECT value FROM json_each(?))");
+            PreparedStatement ps = session.prepare(sql);
+            if (taskIds != null) ps.setString(1, taskIds.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]")));
+            try (ResultSet rs = ps.executeQuery()) {
+                List<IndexedFile> files = new ArrayList<>();
+                while (rs.next()) {
+                    long modifiedAt = rs.getObject("modified_at") == null ? Long.MIN_VALUE : rs.getLong("modified_at");
+                    files.add(new IndexedFile(rs.getLong("id"), rs.getString("markdown_path"), modifiedAt, rs.getLong("size")));
+                }
+                return files;
+            }
+        });
+
+        List<IndexedFile> changed = new ArrayList<>();
+        List<String> bodies = new ArrayList<>();
+        for (IndexedFile file : known) {
+            IndexedFile current = stat(file.taskId(), file.path());
+            if (current.modifiedAt() == file.modifiedAt() && current.size() == file.size()) continue;
+            changed.add(current);
+            bodies.add(readBody(file.path()));
+        }
+        if (changed.isEmpty()) return 0;
+
+        db.write(session -> {
+            PreparedStatement body = session.prepare("UPDATE task_search SET body = ? WHERE rowid = ?");
+            PreparedStatement index = session.prepare("INSERT OR REPLACE INTO markdown_index(task_id, path, modified_at, size) VALUES (?, ?, ?, ?)");
+            for (int i = 0; i < changed.size(); i++) {
+                IndexedFile file = changed.get(i);
+                body.setString(1, bodies.get(i));
+                body.setLong(2, file.taskId());
+                body.addBatch();
+                index.setLong(1, file.taskId());
+                index.setString(2, file.path());
+                index.setLong(3, file.modifiedAt());
+                index.setLong(4, file.size());
+                index.addBatch();
+            }
+            body.executeBatch();
+            return index.executeBatch();
+        });
+        return changed.size();
+    }
+
+    private void reindexQuietly(Collection<Long> taskIds) {
+        try {
+            reindex(taskIds);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    private IndexedFile stat(long taskId, String pathValue) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(Path.of(pathValue), BasicFileAttributes.class);
+            return new IndexedFile(taskId, pathValue, attributes.lastModifiedTime().toMillis(), attributes.size());
+        } catch (IOException | RuntimeException e) {
+            return new IndexedFile(taskId, pathValue, -1, -1);
+        }
+    }
+
+    private String readBody(String pathValue) {
+        long started = System.nanoTime();
+        try (InputStream in = Files.newInputStream(Path.of(pathValue))) {
+            return new String(in.readNBytes(MAX_BODY_BYTES), StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            return "";
+        } finally {
+            readTimer.recordSince(started);
+        }
+    }
+
+    private record IndexedFile(long taskId, String path, long modifiedAt, long size) {}
+}
@@ -0,0 +1,72 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.OccurrenceRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class SQLiteOccurrenceRepository implements OccurrenceRepository {
+
+    private final DatabaseManager db;
+
+    public SQLiteOccurrenceRepository(DatabaseManager db) {
+        this.db = db;
+    }
+
+    @Override
+    public void replace(Map<Long, List<LocalDateTime>> occurrencesByTask) {
+        if (occurrencesByTask.isEmpty()) return;
+        db.write(session -> {
+            PreparedStatement clear = session.prepare("DELETE FROM task_occurrences WHERE task_id = ?");
+            for (long taskId : occurrencesByTask.keySet()) {
+                clear.setLong(1, taskId);
+                clear.addBatch();
+            }
+            clear.executeBatch();
+            insert(session, occurrencesByTask);
+            return null;
+        });
+    }
+
+    @Override
+    public void replaceAll(Map<Long, List<LocalDateTime>> occurrencesByTask) {
+        db.write(session -> {
+            session.prepare("DELETE FROM task_occurrences").executeUpdate();
+            insert(session, occurrencesByTask);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Occurrence> findBetween(LocalDate from, LocalDate to) {
+        return db.read(session -> {
+            PreparedStatement ps = session.prepare(
+                    "SELECT task_id, occurs_at FROM task_occurrences WHERE occurs_at >= ? AND occurs_at < ? ORDER BY occurs_at, task_id");
+            ps.setString(1, from.toString());
+            ps.setString(2, to.plusDays(1).toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Occurrence> occurrences = new ArrayList<>();
+                while (rs.next()) occurrences.add(new Occurrence(rs.getLong("task_id"), LocalDateTime.parse(rs.getString("occurs_at"))));
+                return occurrences;
+            }
+        });
+    }
+
+    private void insert(DatabaseManager.Session session, Map<Long, List<LocalDateTime>> occurrencesByTask) throws SQLException {
+        PreparedStatement ps = session.prepare("INSERT OR IGNORE INTO task_occurrences(task_id, occurs_at) VALUES (?, ?)");
+        for (Map.Entry<Long, List<LocalDateTime>> entry : occurrencesByTask.entrySet()) {
+            for (LocalDateTime occursAt : entry.getValue()) {
+                ps.setLong(1, entry.getKey());
+                ps.setString(2, occursAt.toString());
+                ps.addBatch();
+            }
+        }
+        ps.executeBatch();
+    }
+}
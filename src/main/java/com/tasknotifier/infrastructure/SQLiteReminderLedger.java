@@ -0,0 +1,59 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.ReminderLedger;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SQLiteReminderLedger implements ReminderLedger {
+
+    private final DatabaseManager db;
+
+    public SQLiteReminderLedger(DatabaseManager db) {
+        this.db = db;
+    }
+
+    @Override
+    public List<Entry> findAll() {
+        return db.read(session -> {
+            try (ResultSet rs = session.prepare("SELECT task_id, kind, fired_at FROM reminder_ledger").executeQuery()) {
+                List<Entry> entries = new ArrayList<>();
+                while (rs.next()) {
+                    entries.add(new Entry(rs.getLong("task_id"), Kind.valueOf(rs.getString("kind")), LocalDateTime.parse(rs.getString("fired_at"))));
+                }
+                return entries;
+            }
+        });
+    }
+
+    @Override
+    public void recordAll(List<Entry> entries) {
+        if (entries.isEmpty()) return;
+        String sql = """
+                INSERT INTO reminder_ledger(task_id, kind, fired_at) VALUES (?, ?, ?)
+                ON CONFLICT(task_id, kind) DO UPDATE SET fired_at = excluded.fired_at
+                """;
+        db.write(session -> {
+            PreparedStatement ps = session.prepare(sql);
+            for (Entry entry : entries) {
+                ps.setLong(1, entry.taskId());
+                ps.setString(2, entry.kind().name());
+                ps.setString(3, entry.firedAt().toString());
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        });
+    }
+
+    @Override
+    public void evict(long taskId) {
+        db.write(session -> {
+            PreparedStatement ps = session.prepare("DELETE FROM reminder_ledger WHERE task_id = ?");
+            ps.setLong(1, taskId);
+            return ps.executeUpdate();
+        });
+    }
+}
@@ -1,9 +1,12 @@
 package com.tasknotifier.infrastructure;
 
+import com.tasknotifier.application.SearchQuery;
+import com.tasknotifier.application.TaskQuery;
 import com.tasknotifier.application.TaskRepository;
 import com.tasknotifier.domain.*;
 
 import java.sql.*;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -11,53 +14,106 @@ import java.util.stream.Collectors;
 
 public class SQLiteTaskRepository implements TaskRepository {
 
+    private static final String SELECT_TASKS = """
+            SELECT t.*, (SELECT group_concat(name, '|') FROM (
+                SELECT g.name FROM task_tags tt JOIN tags g ON g.id = tt.tag_id WHERE tt.task_id = t.id ORDER BY tt.position
+            )) AS tag_list FROM tasks t""";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO tasks(title, summary, due_date_time, priority, status, markdown_path,
+            recurrence_type, recurrence_end_date, recurrence_skipped_dates, reminder_enabled, reminder_minutes_before_due,
+            reminder_overdue_repeat, reminder_sound_enabled, updated_at, recurrence_anchor, recurrence_rrule)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String UPDATE_SQL = """
+            UPDATE tasks SET title=?, summary=?, due_date_time=?, priority=?, status=?, markdown_path=?,
+            recurrence_type=?, recurrence_end_date=?, recurrence_skipped_dates=?, reminder_enabled=?, reminder_minutes_before_due=?,
+            reminder_overdue_repeat=?, reminder_sound_enabled=?, updated_at=?, recurrence_anchor=?, recurrence_rrule=? WHERE id=?
+            """;
+
+    private static final int SEARCH_CACHE_SIZE = 256;
+
     private final DatabaseManager db;
+    private final Clock clock;
+    // Compiled search text; due: terms resolve against the day it was compiled on.
+    private final Map<String, CompiledSearch> searches = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledSearch> eldest) {
+            return size() > SEARCH_CACHE_SIZE;
+        }
+    };
 
     public SQLiteTaskRepository(DatabaseManager db) {
+        this(db, Clock.systemDefaultZone());
+    }
+
+    public SQLiteTaskRepository(DatabaseManager db, Clock clock) {
         this.db = db;
+        this.clock = clock;
     }
 
     @Override
     public Task save(Task task) {
-        if (task.getId() == null) {
-            return insert(task);
-        }
-        return update(task);
+        return db.write(session -> {
+            if (task.getId() == null) {
+                insert(session, task);
+            } else {
+                PreparedStatement ps = session.prepare(UPDATE_SQL);
+                bindUpdate(ps, task);
+                ps.executeUpdate();
+                writeTags(session, task);
+            }
+            return task;
+        });
     }
 
-    private Task insert(Task task) {
-        String sql = """
-                INSERT INTO tasks(title, summary, due_date_time, priority, status, tags, markdown_path,
-                recurrence_type, recurrence_end_date, recurrence_skipped_dates, reminder_enabled, reminder_minutes_before_due,
-                reminder_overdue_repeat, reminder_sound_enabled, updated_at)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-        try (Connection conn = db.connection(); PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            bind(ps, task);
-            ps.executeUpdate();
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) task.setId(rs.getLong(1));
+    @Override
+    public List<Task> saveAll(List<Task> tasks) {
+        if (tasks.isEmpty()) return tasks;
+        return db.write(session -> {
+            PreparedStatement update = session.prepare(UPDATE_SQL);
+            for (Task task : tasks) {
+                if (task.getId() == null) {
+                    insert(session, task);
+                } else {
+                    bindUpdate(update, task);
+                    update.addBatch();
+                    writeTags(session, task);
+                }
             }
-            return task;
-        } catch (SQLException e) {
-            throw new IllegalStateException(e);
-        }
+            update.executeBatch();
+            return tasks;
+        });
     }
 
-    private Task update(Task task) {
-        String sql = """
-                UPDATE tasks SET title=?, summary=?, due_date_time=?, priority=?, status=?, tags=?, markdown_path=?,
-                recurrence_type=?, recurrence_end_date=?, recurrence_skipped_dates=?, reminder_enabled=?, reminder_minutes_before_due=?,
-                reminder_overdue_repeat=?, reminder_sound_enabled=?, updated_at=? WHERE id=?
-                """;
-        try (Connection conn = db.connection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            bind(ps, task);
-            ps.setLong(16, task.getId());
-            ps.executeUpdate();
-            return task;
-        } catch (SQLException e) {
-            throw new IllegalStateException(e);
+    @Override
+    public int updateStatusAll(Collection<Long> ids, TaskStatus status, LocalDateTime updatedAt) {
+        if (ids.isEmpty()) return 0;
+        return db.write(session -> {
+            PreparedStatement ps = session.prepare("UPDATE tasks SET status = ?, updated_at = ? WHERE id = ?");
+            for (long id : ids) {
+                ps.setString(1, status.name());
+                ps.setString(2, updatedAt.toString());
+                ps.setLong(3, id);
+                ps.addBatch();
+            }
+            return Arrays.stream(ps.executeBatch()).sum();
+        });
+    }
+
+    private void insert(DatabaseManager.Session session, Task task) throws SQLException {
+        PreparedStatement ps = session.prepareInsert(INSERT_SQL);
+        bind(ps, task);
+        ps.executeUpdate();
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            if (rs.next()) task.setId(rs.getLong(1));
         }
+        writeTags(session, task);
+    }
+
+    private void bindUpdate(PreparedStatement ps, Task task) throws SQLException {
+        bind(ps, task);
+        ps.setLong(17, task.getId());
     }
 
     private void bind(PreparedStatement ps, Task t) throws SQLException {
@@ -66,57 +122,225 @@ public class SQLiteTaskRepository implements TaskRepository {
         ps.setString(3, t.getDueDateTime() == null ? null : t.getDueDateTime().toString());
         ps.setString(4, t.getPriority().name());
         ps.setString(5, t.getStatus().name());
-        ps.setString(6, String.join("|", t.getTags()));
-        ps.setString(7, t.getMarkdownPath());
-        ps.setString(8, t.getRecurrenceRule().type().name());
-        ps.setString(9, t.getRecurrenceRule().endDate() == null ? null : t.getRecurrenceRule().endDate().toString());
-        ps.setString(10, t.getRecurrenceRule().skippedDates().stream().map(LocalDate::toString).collect(Collectors.joining("|")));
-        ps.setInt(11, t.getReminderSettings().enabled() ? 1 : 0);
-        ps.setInt(12, t.getReminderSettings().minutesBeforeDue());
-        ps.setInt(13, t.getReminderSettings().overdueRepeatMinutes());
-        ps.setInt(14, t.getReminderSettings().soundEnabled() ? 1 : 0);
-        ps.setString(15, t.getUpdatedAt().toString());
+        ps.setString(6, t.getMarkdownPath());
+        ps.setString(7, t.getRecurrenceRule().type().name());
+        ps.setString(8, t.getRecurrenceRule().endDate() == null ? null : t.getRecurrenceRule().endDate().toString());
+        ps.setString(9, t.getRecurrenceRule().skippedDates().stream().map(LocalDate::toString).collect(Collectors.joining("|")));
+        ps.setInt(10, t.getReminderSettings().enabled() ? 1 : 0);
+        ps.setInt(11, t.getReminderSettings().minutesBeforeDue());
+        ps.setInt(12, t.getReminderSettings().overdueRepeatMinutes());
+        ps.setInt(13, t.getReminderSettings().soundEnabled() ? 1 : 0);
+        ps.setString(14, t.getUpdatedAt().toString());
+        ps.setString(15, t.getRecurrenceRule().anchor() == null ? null : t.getRecurrenceRule().anchor().toString());
+        ps.setString(16, t.getRecurrenceRule().rrule());
+    }
+
+    // Tag names compare without case, so "home" links to an existing "Home". The task gets the tags back as
+    // stored, trimmed and without such duplicates, so callers that keep it agree with what a reload returns.
+    private void writeTags(DatabaseManager.Session session, Task task) throws SQLException {
+        PreparedStatement clear = session.prepare("DELETE FROM task_tags WHERE task_id = ?");
+        clear.setLong(1, task.getId());
+        clear.executeUpdate();
+        PreparedStatement tag = session.prepare("INSERT OR IGNORE INTO tags(name) VALUES (?)");
+        PreparedStatement find = session.prepare("SELECT id, name FROM tags WHERE name = ?");
+        PreparedStatement link = session.prepare("INSERT OR IGNORE INTO task_tags(task_id, tag_id, position) VALUES (?, ?, ?)");
+        List<String> stored = new ArrayList<>();
+        for (String name : task.getTags()) {
+            if (name.isBlank()) continue;
+            tag.setString(1, name.trim());
+            tag.executeUpdate();
+            find.setString(1, name.trim());
+            try (ResultSet rs = find.executeQuery()) {
+                rs.next();
+                link.setLong(1, task.getId());
+                link.setLong(2, rs.getLong("id"));
+                link.setInt(3, stored.size());
+                if (link.executeUpdate() > 0) stored.add(rs.getString("name"));
+            }
+        }
+        task.setTags(stored);
     }
 
     @Override
     public List<Task> findAll() {
-        try (Connection conn = db.connection(); PreparedStatement ps = conn.prepareStatement("SELECT * FROM tasks"); ResultSet rs = ps.executeQuery()) {
-            List<Task> tasks = new ArrayList<>();
-            while (rs.next()) tasks.add(map(rs));
-            return tasks;
-        } catch (SQLException e) {
-            throw new IllegalStateException(e);
+        return db.read(session -> {
+            try (ResultSet rs = session.prepare(SELECT_TASKS).executeQuery()) {
+                List<Task> tasks = new ArrayList<>();
+                while (rs.next()) tasks.add(map(rs));
+                return tasks;
+            }
+        });
+    }
+
+    @Override
+    public List<Task> query(TaskQuery query) {
+        StringBuilder sql = new StringBuilder(SELECT_TASKS);
+        List<Object> params = new ArrayList<>();
+        SearchQuerySql search = query.text() == null ? null : search(query.text());
+        String match = search == null ? null : search.match();
+        if (match != null) {
+            sql.append(" JOIN task_search ON task_search.rowid = t.id AND task_search MATCH ?");
+            params.add(match);
+        }
+        sql.append(" WHERE 1 = 1");
+        if (query.ids() != null) {
+            sql.append(" AND t.id IN (SELECT value FROM json_each(?))");
+            params.add(jsonArray(query.ids()));
+        }
+        if (query.status() != null) {
+            sql.append(" AND t.status = ?");
+            params.add(query.status().name());
+        }
+        if (query.priority() != null) {
+            sql.append(" AND t.priority = ?");
+            params.add(query.priority().name());
+        }
+        if (query.hasDueRange()) {
+            sql.append(" AND (t.due_date_time IS NULL OR (1 = 1");
+            if (query.dueFrom() != null) {
+                sql.append(" AND t.due_date_time >= ?");
+                params.add(query.dueFrom().toString());
+            }
+            if (query.dueTo() != null) {
+                sql.append(" AND t.due_date_time < ?");
+                params.add(query.dueTo().plusDays(1).toString());
+            }
+            sql.append(")");
+            if (query.occurringIds() != null) {
+                sql.append(" OR t.id IN (SELECT value FROM json_each(?))");
+                params.add(jsonArray(query.occurringIds()));
+            }
+            sql.append(")");
+        }
+        if (query.tag() != null) {
+            sql.append(" AND t.id IN (SELECT tt.task_id FROM task_tags tt WHERE tt.tag_id = (SELECT id FROM tags WHERE name = ?))");
+            params.add(query.tag());
+        }
+        if (search != null) {
+            sql.append(search.where());
+            params.addAll(search.params());
+        }
+        String dueDesc = "t.due_date_time IS NULL DESC, t.due_date_time DESC, t.updated_at DESC, t.id DESC";
+        sql.append(" ORDER BY ").append(switch (query.sort()) {
+            case DUE_DESC -> dueDesc;
+            case DUE_ASC -> "t.due_date_time IS NULL, t.due_date_time, t.updated_at DESC, t.id DESC";
+            case UPDATED_DESC -> "t.updated_at DESC, t.id DESC";
+            case TITLE -> "t.title COLLATE NOCASE, t.updated_at DESC, t.id DESC";
+            case RELEVANCE -> match == null ? dueDesc : "task_search.rank, " + dueDesc;
+        });
+        if (query.limit() > 0 || query.offset() > 0) {
+            sql.append(" LIMIT ? OFFSET ?");
+            params.add(query.limit() > 0 ? query.limit() : -1);
+            params.add(query.offset());
+        }
+        return db.read(session -> {
+            PreparedStatement ps = session.prepare(sql.toString());
+            for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Task> tasks = new ArrayList<>();
+                while (rs.next()) tasks.add(map(rs));
+                return tasks;
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Long> tagCounts() {
+        String sql = """
+                SELECT g.name, COUNT(*) AS task_count FROM task_tags tt JOIN tags g ON g.id = tt.tag_id
+                GROUP BY g.id ORDER BY task_count DESC, g.name COLLATE NOCASE
+                """;
+        return db.read(session -> {
+            try (ResultSet rs = session.prepare(sql).executeQuery()) {
+                Map<String, Long> counts = new LinkedHashMap<>();
+                while (rs.next()) counts.put(rs.getString("name"), rs.getLong("task_count"));
+                return counts;
+            }
+        });
+    }
+
+    @Override
+    public int renameTag(String from, String to) {
+        return db.write(session -> {
+            Long source = tagId(session, from);
+            if (source == null) return 0;
+            Long target = tagId(session, to);
+            PreparedStatement count = session.prepare("SELECT COUNT(*) FROM task_tags WHERE tag_id = ?");
+            count.setLong(1, source);
+            int affected;
+            try (ResultSet rs = count.executeQuery()) {
+                affected = rs.next() ? rs.getInt(1) : 0;
+            }
+            if (target == null || target.equals(source)) {
+                PreparedStatement rename = session.prepare("UPDATE tags SET name = ? WHERE id = ?");
+                rename.setString(1, to.trim());
+                rename.setLong(2, source);
+                rename.executeUpdate();
+                return affected;
+            }
+            PreparedStatement merge = session.prepare("UPDATE OR IGNORE task_tags SET tag_id = ? WHERE tag_id = ?");
+            merge.setLong(1, target);
+            merge.setLong(2, source);
+            merge.executeUpdate();
+            PreparedStatement leftovers = session.prepare("DELETE FROM task_tags WHERE tag_id = ?");
+            leftovers.setLong(1, source);
+            leftovers.executeUpdate();
+            PreparedStatement drop = session.prepare("DELETE FROM tags WHERE id = ?");
+            drop.setLong(1, source);
+            drop.executeUpdate();
+            return affected;
+        });
+    }
+
+    private Long tagId(DatabaseManager.Session session, String name) throws SQLException {
+        PreparedStatement ps = session.prepare("SELECT id FROM tags WHERE name = ?");
+        ps.setString(1, name.trim());
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : null;
         }
     }
 
     @Override
     public Optional<Task> findById(long id) {
-        try (Connection conn = db.connection(); PreparedStatement ps = conn.prepareStatement("SELECT * FROM tasks WHERE id = ?")) {
+        return db.read(session -> {
+            PreparedStatement ps = session.prepare(SELECT_TASKS + " WHERE t.id = ?");
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return Optional.of(map(rs));
                 return Optional.empty();
             }
-        } catch (SQLException e) {
-            throw new IllegalStateException(e);
-        }
+        });
     }
 
     @Override
     public void deleteById(long id) {
-        try (Connection conn = db.connection(); PreparedStatement ps = conn.prepareStatement("DELETE FROM tasks WHERE id = ?")) {
-            ps.setLong(1, id);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            throw new IllegalStateException(e);
-        }
+        deleteAllById(List.of(id));
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        return db.write(session -> {
+            PreparedStatement ps = session.prepare("DELETE FROM tasks WHERE id = ?");
+            for (long id : ids) {
+                ps.setLong(1, id);
+                ps.addBatch();
+            }
+            return Arrays.stream(ps.executeBatch()).sum();
+        });
+    }
+
+    private static String jsonArray(Set<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
     }
 
     private Task map(ResultSet rs) throws SQLException {
         RecurrenceRule rule = new RecurrenceRule(
                 RecurrenceType.valueOf(rs.getString("recurrence_type")),
                 rs.getString("recurrence_end_date") == null ? null : LocalDate.parse(rs.getString("recurrence_end_date")),
-                split(rs.getString("recurrence_skipped_dates")).stream().map(LocalDate::parse).collect(Collectors.toSet())
+                split(rs.getString("recurrence_skipped_dates")).stream().map(LocalDate::parse).collect(Collectors.toSet()),
+                rs.getString("recurrence_anchor") == null ? null : LocalDateTime.parse(rs.getString("recurrence_anchor")),
+                rs.getString("recurrence_rrule")
         );
         ReminderSettings reminder = new ReminderSettings(
                 rs.getInt("reminder_enabled") == 1,
@@ -131,7 +355,7 @@ public class SQLiteTaskRepository implements TaskRepository {
                 rs.getString("due_date_time") == null ? null : LocalDateTime.parse(rs.getString("due_date_time")),
                 Priority.valueOf(rs.getString("priority")),
                 TaskStatus.valueOf(rs.getString("status")),
-                split(rs.getString("tags")),
+                split(rs.getString("tag_list")),
                 rs.getString("markdown_path"),
                 rule,
                 reminder,
@@ -139,9 +363,24 @@ public class SQLiteTaskRepository implements TaskRepository {
         );
     }
 
+    private SearchQuerySql search(String text) {
+        LocalDate today = LocalDate.now(clock);
+        synchronized (searches) {
+            CompiledSearch cached = searches.get(text);
+            if (cached != null && cached.today().equals(today)) return cached.sql();
+        }
+        SearchQuerySql sql = SearchQuerySql.compile(SearchQuery.parse(text), today);
+        synchronized (searches) {
+            searches.put(text, new CompiledSearch(today, sql));
+        }
+        return sql;
+    }
+
+    private record CompiledSearch(LocalDate today, SearchQuerySql sql) {}
+
     private List<String> split(String value) {
         if (value == null || value.isBlank()) return new ArrayList<>();
-        return Arrays.stream(value.split("\\\\|"))
+        return Arrays.stream(value.split("\\|"))
                 .filter(v -> !v.isBlank())
                 .toList();
     }
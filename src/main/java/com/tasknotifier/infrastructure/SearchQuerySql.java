@@ -0,0 +1,83 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.SearchQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link SearchQuery} compiled for {@link SQLiteTaskRepository}. Words and phrases that must be present
+ * go into one FTS5 {@code match} expression, as prefix terms and exact phrases, so they also find note
+ * bodies and can be ranked. Everything else becomes parameterized {@code where} conditions, to be appended
+ * after the query's other criteria. Negated text and text without letters or digits use {@code LIKE} on
+ * title, summary and tags, which is what {@link com.tasknotifier.application.TaskFilter} matches.
+ */
+record SearchQuerySql(String match, String where, List<Object> params) {
+
+    private static final String TAG_IDS = "SELECT tt.task_id FROM task_tags tt JOIN tags g ON g.id = tt.tag_id WHERE g.name";
+
+    static SearchQuerySql compile(SearchQuery query, LocalDate today) {
+        List<String> match = new ArrayList<>();
+        StringBuilder where = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        for (SearchQuery.Clause clause : query.clauses()) {
+            SearchQuery.Term term = clause.term();
+            if (!clause.negated() && term instanceof SearchQuery.Word word && !tokens(word.text()).isEmpty()) {
+                match.add(tokens(word.text()).stream().map(token -> "\"" + token + "\"*").collect(Collectors.joining(" ")));
+                continue;
+            }
+            if (!clause.negated() && term instanceof SearchQuery.Phrase phrase && !tokens(phrase.text()).isEmpty()) {
+                match.add("\"" + String.join(" ", tokens(phrase.text())) + "\"");
+                continue;
+            }
+            where.append(clause.negated() ? " AND NOT " : " AND ");
+            if (term instanceof SearchQuery.Word word) {
+                like(word.text(), where, params);
+            } else if (term instanceof SearchQuery.Phrase phrase) {
+                like(phrase.text(), where, params);
+            } else if (term instanceof SearchQuery.TagIs tag) {
+                where.append("t.id IN (").append(TAG_IDS).append(" = ?)");
+                params.add(tag.tag());
+            } else if (term instanceof SearchQuery.StatusIs status) {
+                where.append("t.status = ?");
+                params.add(status.status().name());
+            } else if (term instanceof SearchQuery.PriorityIs priority) {
+                where.append("t.priority = ?");
+                params.add(priority.priority().name());
+            } else if (term instanceof SearchQuery.Due due) {
+                due(due.comparison(), due.date(today), where, params);
+            }
+        }
+        return new SearchQuerySql(match.isEmpty() ? null : String.join(" ", match), where.toString(), List.copyOf(params));
+    }
+
+    // Due times are stored as ISO text, so a date string sorts before every time on that day.
+    private static void due(SearchQuery.Comparison comparison, LocalDate date, StringBuilder where, List<Object> params) {
+        String day = date.toString();
+        String nextDay = date.plusDays(1).toString();
+        where.append("(t.due_date_time IS NOT NULL AND t.due_date_time ").append(switch (comparison) {
+            case LT, LE -> "< ?";
+            case GE, GT -> ">= ?";
+            case EQ -> ">= ? AND t.due_date_time < ?";
+        }).append(")");
+        switch (comparison) {
+            case LT, GE -> params.add(day);
+            case LE, GT -> params.add(nextDay);
+            case EQ -> params.addAll(List.of(day, nextDay));
+        }
+    }
+
+    private static void like(String text, StringBuilder where, List<Object> params) {
+        where.append("(t.title LIKE ? ESCAPE '\\' OR t.summary LIKE ? ESCAPE '\\' OR t.id IN (")
+                .append(TAG_IDS).append(" LIKE ? ESCAPE '\\'))");
+        String pattern = "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        params.addAll(List.of(pattern, pattern, pattern));
+    }
+
+    private static List<String> tokens(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+")).filter(token -> !token.isBlank()).toList();
+    }
+}
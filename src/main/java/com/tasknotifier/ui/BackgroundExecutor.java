@@ -0,0 +1,105 @@
+package com.tasknotifier.ui;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs database and file work off the JavaFX application thread. Returned futures complete on the FX
+ * thread, so callers can update controls directly in {@code thenAccept}. Work submitted under a key
+ * supersedes the previous request with the same key: the older one is cancelled and never completes.
+ * Writes go through {@link #write} and run one at a time, in the order they were submitted.
+ */
+public class BackgroundExecutor {
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(2, runnable -> daemon(runnable, "task-notifier-background"));
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "task-notifier-writer"));
+    private final Map<String, CompletableFuture<?>> latestByKey = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(false);
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        return submit(executorService, work);
+    }
+
+    public CompletableFuture<Void> run(Runnable work) {
+        return submit(executorService, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /** Runs a change to stored data after every write submitted before it has finished. */
+    public CompletableFuture<Void> write(Runnable work) {
+        return submit(writeExecutor, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<T> submitLatest(String key, Supplier<T> work) {
+        CompletableFuture<T> result = submit(work);
+        CompletableFuture<?> previous = latestByKey.put(key, result);
+        if (previous != null) previous.cancel(false);
+        result.whenComplete((value, error) -> latestByKey.remove(key, result));
+        return result;
+    }
+
+    public ReadOnlyBooleanProperty busyProperty() {
+        return busy.getReadOnlyProperty();
+    }
+
+    public void shutdown() {
+        executorService.shutdownNow();
+        writeExecutor.shutdown();
+    }
+
+    // Whichever of the worker and a cancellation claims the request first owns its in-flight count.
+    private <T> CompletableFuture<T> submit(ExecutorService executor, Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicBoolean claimed = new AtomicBoolean();
+        updateBusy(inFlight.incrementAndGet());
+        Future<?> running = executor.submit(() -> {
+            if (!claimed.compareAndSet(false, true)) return;
+            try {
+                T value = work.get();
+                Platform.runLater(() -> result.complete(value));
+            } catch (Throwable e) {
+                Platform.runLater(() -> result.completeExceptionally(e));
+            } finally {
+                updateBusy(inFlight.decrementAndGet());
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled() && claimed.compareAndSet(false, true)) {
+                running.cancel(false);
+                updateBusy(inFlight.decrementAndGet());
+            }
+        });
+        return result;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void updateBusy(int count) {
+        if (Platform.isFxApplicationThread()) {
+            busy.set(count > 0);
+        } else {
+            Platform.runLater(() -> busy.set(inFlight.get() > 0));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.tasknotifier.ui;
+
+import com.tasknotifier.application.MetricsRegistry;
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how long the FX thread takes to pick up a posted runnable. The delay is recorded as
+ * {@code fx.latency}, so a busy or blocked FX thread shows up as a high p99 or max. At most one probe is in
+ * flight, so a stalled FX thread is not flooded with probes.
+ */
+public class FxThreadProbe {
+
+    private static final long INTERVAL_MILLIS = 250;
+
+    private final MetricsRegistry.Timer latency;
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fx-thread-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FxThreadProbe(MetricsRegistry metrics) {
+        this.latency = metrics.timer("fx.latency");
+    }
+
+    public void start() {
+        executorService.scheduleWithFixedDelay(this::probe, INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executorService.shutdownNow();
+    }
+
+    private void probe() {
+        if (!inFlight.compareAndSet(false, true)) return;
+        long posted = System.nanoTime();
+        Platform.runLater(() -> {
+            latency.recordSince(posted);
+            inFlight.set(false);
+        });
+    }
+}
@@ -1,13 +1,16 @@
 package com.tasknotifier.ui;
 
 import atlantafx.base.theme.*;
+import com.tasknotifier.application.DashboardCounters;
+import com.tasknotifier.application.FacetCounts;
 import com.tasknotifier.application.TaskFilter;
-import com.tasknotifier.application.TaskService;
 import com.tasknotifier.domain.*;
 import com.tasknotifier.infrastructure.UiStateStore;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
@@ -15,13 +18,17 @@ import javafx.scene.input.KeyCode;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 import javafx.geometry.Rectangle2D;
 
 public class MainController {
@@ -56,17 +63,21 @@ public class MainController {
     @FXML private TextField tagsField;
     @FXML private TextField markdownPathField;
     @FXML private ComboBox<RecurrenceType> recurrenceBox;
+    @FXML private TextField rruleField;
     @FXML private DatePicker recurrenceEndDatePicker;
     @FXML private CheckBox reminderEnabledBox;
     @FXML private Spinner<Integer> reminderMinutesSpinner;
     @FXML private Spinner<Integer> overdueRepeatSpinner;
     @FXML private CheckBox reminderSoundBox;
     @FXML private CheckBox notificationsMasterToggle;
+    @FXML private ProgressIndicator busyIndicator;
     @FXML private Button minimizeButton;
     @FXML private Button maximizeButton;
     @FXML private Button closeButton;
 
     private MainViewModel viewModel;
+    private final ObservableList<Task> visibleTasks = FXCollections.observableArrayList();
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(200));
     private Long editingTaskId;
     private final Map<String, Theme> themes = buildThemes();
     private Path selectedMarkdownFolder = Path.of("task-detail");
@@ -99,6 +110,7 @@ public class MainController {
         newTaskButton.getStyleClass().add(Styles.ACCENT);
         saveTaskButton.getStyleClass().add(Styles.ACCENT);
         focusSearchButton.getStyleClass().add(Styles.ACCENT);
+        busyIndicator.visibleProperty().bind(viewModel.busyProperty());
         minimizeButton.getStyleClass().addAll(Styles.BUTTON_ICON, Styles.FLAT);
         maximizeButton.getStyleClass().addAll(Styles.BUTTON_ICON, Styles.FLAT);
         closeButton.getStyleClass().addAll(Styles.BUTTON_ICON, Styles.FLAT, Styles.DANGER);
@@ -128,15 +140,25 @@ public class MainController {
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
                 setTooltip(null);
+                getStyleClass().remove("missing-file");
                 if (empty || item == null || item.isBlank()) {
                     setText(null);
                     return;
                 }
 
                 setText(Path.of(item).getFileName().toString());
-                Tooltip preview = new Tooltip(readMarkdownPreview(item));
+                Task task = getTableRow() == null ? null : getTableRow().getItem();
+                if (task != null && viewModel.isMarkdownMissing(task)) {
+                    getStyleClass().add("missing-file");
+                    setTooltip(new Tooltip(viewModel.relinkSuggestion(task)
+                            .map(p -> "File missing. Found matching content at:\n" + p)
+                            .orElse("File not found:\n" + item)));
+                    return;
+                }
+                Tooltip preview = new Tooltip("Loading preview...");
                 preview.setWrapText(true);
                 preview.setMaxWidth(540);
+                preview.setOnShowing(e -> viewModel.markdownPreview(item).thenAccept(preview::setText));
                 setTooltip(preview);
             }
         });
@@ -155,25 +177,39 @@ public class MainController {
             }
         });
 
+        taskTable.setItems(visibleTasks);
+        searchDebounce.setOnFinished(e -> applyFilters());
         taskTable.setOnMouseClicked(e -> {
             if (e.getClickCount() == 2) populateForm(taskTable.getSelectionModel().getSelectedItem());
         });
 
+        taskTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         taskTable.setOnKeyPressed(e -> {
-            if (e.getCode() == KeyCode.M && e.isShortcutDown()) viewModel.toggleDone(taskTable.getSelectionModel().getSelectedItem());
+            if (e.getCode() == KeyCode.M && e.isShortcutDown()) afterChange(viewModel.toggleDone(selectedTasks()));
         });
 
         ContextMenu menu = new ContextMenu();
         MenuItem openFile = new MenuItem("Open File");
         openFile.setOnAction(e -> viewModel.openMarkdown(taskTable.getSelectionModel().getSelectedItem()));
         MenuItem markDone = new MenuItem("Mark Done/Undone");
-        markDone.setOnAction(e -> { viewModel.toggleDone(taskTable.getSelectionModel().getSelectedItem()); applyFilters(); updateDashboard(); });
+        markDone.setOnAction(e -> afterChange(viewModel.toggleDone(selectedTasks())));
         MenuItem skipOccurrence = new MenuItem("Skip Next Occurrence");
-        skipOccurrence.setOnAction(e -> { viewModel.skipNextOccurrence(taskTable.getSelectionModel().getSelectedItem()); applyFilters(); });
+        skipOccurrence.setOnAction(e -> afterChange(viewModel.skipNextOccurrence(taskTable.getSelectionModel().getSelectedItem())));
+        MenuItem relink = new MenuItem("Relink Markdown File");
+        relink.setOnAction(e -> afterChange(viewModel.relinkMarkdown(taskTable.getSelectionModel().getSelectedItem())));
+        menu.setOnShowing(e -> {
+            Task selected = taskTable.getSelectionModel().getSelectedItem();
+            relink.setDisable(selected == null || viewModel.relinkSuggestion(selected).isEmpty());
+        });
         MenuItem delete = new MenuItem("Delete");
-        delete.setOnAction(e -> { viewModel.delete(taskTable.getSelectionModel().getSelectedItem()); applyFilters(); updateDashboard(); });
-        menu.getItems().addAll(openFile, markDone, skipOccurrence, delete);
+        delete.setOnAction(e -> afterChange(viewModel.delete(selectedTasks())));
+        menu.getItems().addAll(openFile, markDone, skipOccurrence, relink, delete);
         taskTable.setContextMenu(menu);
+        viewModel.onMarkdownFilesChanged(taskTable::refresh);
+        viewModel.onTasksChanged(() -> {
+            applyFilters();
+            updateDashboard();
+        });
 
         applyTheme();
         applyFilters();
@@ -188,7 +224,18 @@ public class MainController {
 
     @FXML
     public void applyFilters() {
-        taskTable.setItems(FXCollections.observableArrayList(viewModel.filtered(searchField.getText(), statusFilter.getValue(), priorityFilter.getValue(), dueRangeFilter.getValue(), tagFilter.getText())));
+        searchDebounce.stop();
+        viewModel.filtered(searchField.getText(), statusFilter.getValue(), priorityFilter.getValue(), dueRangeFilter.getValue(), tagFilter.getText())
+                .thenAccept(items -> TaskListDiff.apply(visibleTasks, items))
+                .exceptionally(this::showError);
+        viewModel.facets(statusFilter.getValue(), priorityFilter.getValue(), dueRangeFilter.getValue(), tagFilter.getText())
+                .thenAccept(this::showFacets)
+                .exceptionally(this::showError);
+    }
+
+    @FXML
+    public void scheduleFilters() {
+        searchDebounce.playFromStart();
     }
 
     @FXML
@@ -198,11 +245,15 @@ public class MainController {
         }
         viewModel.saveTask(editingTaskId, titleField.getText(), summaryArea.getText(), dueDatePicker.getValue(), dueTimeField.getText(),
                 priorityBox.getValue(), statusBox.getValue(), tagsField.getText(), markdownPathField.getText(),
-                recurrenceBox.getValue(), recurrenceEndDatePicker.getValue(), reminderEnabledBox.isSelected(),
-                reminderMinutesSpinner.getValue(), overdueRepeatSpinner.getValue(), reminderSoundBox.isSelected());
-        clearForm();
-        applyFilters();
-        updateDashboard();
+                recurrenceBox.getValue(), rruleField.getText(), recurrenceEndDatePicker.getValue(), reminderEnabledBox.isSelected(),
+                reminderMinutesSpinner.getValue(), overdueRepeatSpinner.getValue(), reminderSoundBox.isSelected())
+                .thenRun(this::clearForm)
+                .exceptionally(this::showError);
+    }
+
+    @FXML
+    public void updateRruleField() {
+        rruleField.setDisable(recurrenceBox.getValue() != RecurrenceType.CUSTOM);
     }
 
     @FXML
@@ -347,6 +398,8 @@ public class MainController {
         tagsField.clear();
         markdownPathField.setText(buildDefaultMarkdownPath(selectedMarkdownFolder).toString());
         recurrenceBox.setValue(RecurrenceType.NONE);
+        rruleField.clear();
+        updateRruleField();
         recurrenceEndDatePicker.setValue(null);
     }
 
@@ -362,14 +415,58 @@ public class MainController {
         tagsField.setText(String.join(",", task.getTags()));
         markdownPathField.setText(task.getMarkdownPath());
         recurrenceBox.setValue(task.getRecurrenceRule().type());
+        rruleField.setText(task.getRecurrenceRule().rrule());
+        updateRruleField();
         recurrenceEndDatePicker.setValue(task.getRecurrenceRule().endDate());
     }
 
     private void updateDashboard() {
-        TaskService.DashboardSummary s = viewModel.dashboardSummary();
+        DashboardCounters.Summary s = viewModel.dashboardSummary();
         overdueCountLabel.setText(String.valueOf(s.overdue()));
         dueTodayCountLabel.setText(String.valueOf(s.dueToday()));
         upcomingCountLabel.setText(String.valueOf(s.upcoming()));
+        overdueCountLabel.setTooltip(new Tooltip(viewModel.dashboardBreakdown(DashboardCounters.Bucket.OVERDUE)));
+        dueTodayCountLabel.setTooltip(new Tooltip(viewModel.dashboardBreakdown(DashboardCounters.Bucket.DUE_TODAY)));
+        upcomingCountLabel.setTooltip(new Tooltip(viewModel.dashboardBreakdown(DashboardCounters.Bucket.UPCOMING)));
+    }
+
+    // A new cell factory makes the open list rebuild its cells with the new counts.
+    private void showFacets(FacetCounts facets) {
+        statusFilter.setCellFactory(list -> facetCell(facets.byStatus()));
+        priorityFilter.setCellFactory(list -> facetCell(facets.byPriority()));
+        String topTags = facets.byTag().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(10)
+                .map(e -> "#" + e.getKey() + ": " + e.getValue())
+                .collect(Collectors.joining("\n"));
+        tagFilter.setTooltip(new Tooltip(topTags.isEmpty() ? "No tags match" : topTags));
+    }
+
+    private static <T> ListCell<T> facetCell(Map<T, Long> counts) {
+        return new ListCell<>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item + " (" + counts.getOrDefault(item, 0L) + ")");
+            }
+        };
+    }
+
+    private void afterChange(CompletableFuture<Void> change) {
+        change.exceptionally(this::showError);
+    }
+
+    private Void showError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) return null;
+        Alert alert = new Alert(Alert.AlertType.ERROR, cause.getMessage() == null ? cause.toString() : cause.getMessage());
+        alert.setHeaderText("Task Notifier");
+        alert.show();
+        return null;
+    }
+
+    private List<Task> selectedTasks() {
+        return List.copyOf(taskTable.getSelectionModel().getSelectedItems());
     }
 
     private Map<String, Theme> buildThemes() {
@@ -403,18 +500,4 @@ public class MainController {
         stage.setX(Math.max(bounds.getMinX(), x));
         stage.setY(Math.max(bounds.getMinY(), y));
     }
-
-    private String readMarkdownPreview(String pathValue) {
-        try {
-            Path path = Path.of(pathValue);
-            if (Files.notExists(path)) return "File not found:\n" + path;
-            String content = Files.readString(path);
-            if (content.length() > 2000) {
-                return content.substring(0, 2000) + "\n\n...";
-            }
-            return content.isBlank() ? "(Empty file)" : content;
-        } catch (IOException | RuntimeException e) {
-            return "Unable to read file preview.";
-        }
-    }
 }
@@ -2,102 +2,228 @@ package com.tasknotifier.ui;
 
 import com.tasknotifier.application.*;
 import com.tasknotifier.domain.*;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.tasknotifier.infrastructure.MarkdownFileIndex;
+import com.tasknotifier.infrastructure.MarkdownPreviewCache;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
 
 import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 public class MainViewModel {
 
     private final TaskService taskService;
+    private final TaskStore store;
     private final RecurrenceService recurrenceService;
     private final ReminderScheduler reminderScheduler;
+    private final MarkdownFileIndex fileIndex;
+    private final DashboardCounters dashboard;
+    private final OccurrenceMaterializer occurrences;
     private final TaskFilter filter = new TaskFilter();
-    private final ObservableList<Task> tasks = FXCollections.observableArrayList();
-
-    public MainViewModel(TaskService taskService, RecurrenceService recurrenceService, ReminderScheduler reminderScheduler) {
+    private final BackgroundExecutor background = new BackgroundExecutor();
+    private final MarkdownPreviewCache previews = new MarkdownPreviewCache(256);
+    private final List<Runnable> changeActions = new ArrayList<>();
+    private final AtomicBoolean changePending = new AtomicBoolean();
+    private TaskQuery lastQuery;
+    private Set<Long> lastResultIds;
+
+    public MainViewModel(TaskService taskService, TaskStore store, DashboardCounters dashboard, OccurrenceMaterializer occurrences,
+                         RecurrenceService recurrenceService, ReminderScheduler reminderScheduler, MarkdownFileIndex fileIndex) {
         this.taskService = taskService;
+        this.store = store;
+        this.dashboard = dashboard;
+        this.occurrences = occurrences;
         this.recurrenceService = recurrenceService;
         this.reminderScheduler = reminderScheduler;
-        refresh();
+        this.fileIndex = fileIndex;
+        store.addChangeListener(event -> changed());
+        dashboard.addRolloverListener(this::changed);
+        occurrences.addChangeListener(this::changed);
+    }
+
+    /** Runs on the FX thread after the store committed changes or the date rolled over, once per burst. */
+    public void onTasksChanged(Runnable action) {
+        changeActions.add(action);
+    }
+
+    public ReadOnlyBooleanProperty busyProperty() {
+        return background.busyProperty();
+    }
+
+    public CompletableFuture<List<Task>> filtered(String search, TaskStatus status, Priority priority, TaskFilter.DueRange dueRange, String tag) {
+        TaskQuery query = filter.toQuery(search, status, priority, dueRange, tag);
+        TaskQuery ranked = query.text() == null ? query : query.toBuilder().sort(TaskQuery.Sort.RELEVANCE).build();
+        TaskQuery effective = narrows(lastQuery, ranked) ? ranked.toBuilder().ids(lastResultIds).build() : ranked;
+        return background.submitLatest("filter", () -> taskService.query(withOccurrences(effective))).thenApply(result -> {
+            lastQuery = ranked;
+            lastResultIds = result.stream().map(Task::getId).collect(Collectors.toSet());
+            return result;
+        });
+    }
+
+    /** Counts to show next to each filter option. The search text does not narrow them. */
+    public CompletableFuture<FacetCounts> facets(TaskStatus status, Priority priority, TaskFilter.DueRange dueRange, String tag) {
+        TaskQuery query = filter.toQuery(null, status, priority, dueRange, tag);
+        return background.submitLatest("facets", () -> store.facets(withOccurrences(query)));
     }
 
-    public ObservableList<Task> tasks() {
-        return tasks;
+    // Agenda ranges also show tasks whose current due date lies outside the range but that occur within it.
+    private TaskQuery withOccurrences(TaskQuery query) {
+        if (query.dueFrom() == null || query.dueTo() == null) return query;
+        return query.toBuilder().occurringIds(occurrences.taskIdsBetween(query.dueFrom(), query.dueTo())).build();
     }
 
-    public void refresh() {
-        tasks.setAll(taskService.listAll());
+    // Typing more of a search made only of words can only shrink the match set, so the next query is restricted
+    // to the ids of the previous result. Field terms and negations do not narrow that way: tag:wo matches
+    // nothing that tag:work does. Any store change resets lastQuery, since new or edited tasks may then match.
+    static boolean narrows(TaskQuery previous, TaskQuery next) {
+        if (previous == null || previous.text() == null || next.text() == null) return false;
+        if (!SearchQuery.parse(previous.text()).isPlainWords() || !SearchQuery.parse(next.text()).isPlainWords()) return false;
+        if (previous.limit() != 0 || previous.offset() != 0) return false;
+        if (previous.text().chars().noneMatch(Character::isLetterOrDigit)) return false;
+        if (!next.text().toLowerCase().startsWith(previous.text().toLowerCase())) return false;
+        return previous.toBuilder().text(null).build().equals(next.toBuilder().text(null).build());
     }
 
-    public List<Task> filtered(String search, TaskStatus status, Priority priority, TaskFilter.DueRange dueRange, String tag) {
-        return filter.filter(taskService.listAll(), search, status, priority, dueRange, tag);
+    public DashboardCounters.Summary dashboardSummary() {
+        return dashboard.summary();
     }
 
-    public TaskService.DashboardSummary dashboardSummary() {
-        return taskService.dashboardSummary();
+    public String dashboardBreakdown(DashboardCounters.Bucket bucket) {
+        StringBuilder text = new StringBuilder();
+        dashboard.byPriority(bucket).forEach((priority, count) -> text.append(priority).append(": ").append(count).append('\n'));
+        dashboard.byTag(bucket).entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(10)
+                .forEach(e -> text.append('#').append(e.getKey()).append(": ").append(e.getValue()).append('\n'));
+        return text.isEmpty() ? "Nothing here" : text.toString().strip();
     }
 
-    public void saveTask(Long id, String title, String summary, LocalDate dueDate, String dueTime,
+    public CompletableFuture<Void> saveTask(Long id, String title, String summary, LocalDate dueDate, String dueTime,
                          Priority priority, TaskStatus status, String tags,
-                         String markdownPath, RecurrenceType recurrenceType, LocalDate recurrenceEndDate,
+                         String markdownPath, RecurrenceType recurrenceType, String rrule, LocalDate recurrenceEndDate,
                          boolean reminderEnabled, int minutesBeforeDue, int overdueMinutes, boolean reminderSound) {
 
         LocalDateTime due = dueDate == null ? null : LocalDateTime.of(dueDate, parseTime(dueTime));
+        String customRule;
+        try {
+            customRule = recurrenceType == RecurrenceType.CUSTOM ? RRule.parse(rrule).format() : null;
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // Editing other fields keeps the series: same rule and due date retain the anchor and skipped dates.
+        RecurrenceRule existing = id == null ? null : store.findById(id)
+                .filter(t -> Objects.equals(t.getDueDateTime(), due))
+                .map(Task::getRecurrenceRule)
+                .filter(r -> r.type() == recurrenceType && Objects.equals(r.rrule(), customRule))
+                .orElse(null);
+        RecurrenceRule rule = existing == null
+                ? new RecurrenceRule(recurrenceType, recurrenceEndDate, new java.util.HashSet<>(), null, customRule)
+                : new RecurrenceRule(recurrenceType, recurrenceEndDate, existing.skippedDates(), existing.anchor(), customRule);
         Task task = new Task(id, title, summary, due, priority, status,
                 tokenize(tags), markdownPath,
-                new RecurrenceRule(recurrenceType, recurrenceEndDate, new java.util.HashSet<>()),
+                rule,
                 new ReminderSettings(reminderEnabled, minutesBeforeDue, overdueMinutes, reminderSound),
                 LocalDateTime.now());
-        taskService.save(task);
-        refresh();
+        return background.write(() -> taskService.save(task));
     }
 
-    public void delete(Task task) {
-        if (task == null) return;
-        taskService.delete(task.getId());
-        refresh();
+    public CompletableFuture<Void> delete(List<Task> selected) {
+        if (selected.isEmpty()) return CompletableFuture.completedFuture(null);
+        List<Long> ids = selected.stream().map(Task::getId).toList();
+        return background.write(() -> taskService.deleteAll(ids));
     }
 
-    public void toggleDone(Task task) {
-        if (task == null) return;
-        taskService.markDoneToggle(task);
-        refresh();
+    public CompletableFuture<Void> toggleDone(List<Task> selected) {
+        if (selected.isEmpty()) return CompletableFuture.completedFuture(null);
+        if (selected.size() == 1) return background.write(() -> taskService.markDoneToggle(selected.get(0)));
+        boolean allDone = selected.stream().allMatch(t -> t.getStatus() == TaskStatus.DONE);
+        return background.write(() -> taskService.updateStatusAll(selected, allDone ? TaskStatus.TODO : TaskStatus.DONE));
     }
 
     public String recurrenceSummary(Task task) {
         return recurrenceService.summarize(task.getRecurrenceRule());
     }
 
-    public void skipNextOccurrence(Task task) {
-        if (task == null || task.getDueDateTime() == null || !task.getRecurrenceRule().isRecurring()) return;
+    public CompletableFuture<Void> skipNextOccurrence(Task task) {
+        if (task == null || task.getDueDateTime() == null || !task.getRecurrenceRule().isRecurring()) {
+            return CompletableFuture.completedFuture(null);
+        }
         recurrenceService.skipOccurrence(task.getRecurrenceRule(), task.getDueDateTime().toLocalDate());
-        taskService.save(task);
-        refresh();
+        return background.write(() -> taskService.save(task));
+    }
+
+    public CompletableFuture<String> markdownPreview(String path) {
+        return background.submit(() -> previews.preview(path));
+    }
+
+    public boolean isMarkdownMissing(Task task) {
+        return fileIndex.isMissing(task.getMarkdownPath());
+    }
+
+    public Optional<Path> relinkSuggestion(Task task) {
+        return fileIndex.relinkSuggestion(task.getMarkdownPath());
+    }
+
+    public CompletableFuture<Void> relinkMarkdown(Task task) {
+        Optional<Path> target = task == null ? Optional.empty() : relinkSuggestion(task);
+        if (target.isEmpty()) return CompletableFuture.completedFuture(null);
+        Task relinked = new Task(task.getId(), task.getTitle(), task.getSummary(), task.getDueDateTime(), task.getPriority(),
+                task.getStatus(), task.getTags(), target.get().toString(), task.getRecurrenceRule(), task.getReminderSettings(),
+                task.getUpdatedAt());
+        return background.write(() -> taskService.save(relinked));
+    }
+
+    public void onMarkdownFilesChanged(Runnable action) {
+        fileIndex.addChangeListener(ids -> Platform.runLater(action));
     }
 
     public void openMarkdown(Task task) {
         if (task == null) return;
-        try {
-            File file = new File(task.getMarkdownPath());
-            if (file.exists()) {
-                Desktop.getDesktop().open(file);
+        background.run(() -> {
+            try {
+                File file = new File(task.getMarkdownPath());
+                if (file.exists()) {
+                    Desktop.getDesktop().open(file);
+                }
+            } catch (IOException ignored) {
             }
-        } catch (IOException ignored) {
-        }
+        });
+    }
+
+    public void shutdown() {
+        background.shutdown();
     }
 
     public void setNotificationsEnabled(boolean enabled) {
         reminderScheduler.setEnabled(enabled);
     }
 
+    private void changed() {
+        if (changePending.compareAndSet(false, true)) Platform.runLater(this::publishChanges);
+    }
+
+    private void publishChanges() {
+        changePending.set(false);
+        lastQuery = null;
+        changeActions.forEach(Runnable::run);
+    }
+
     private LocalTime parseTime(String value) {
         if (value == null || value.isBlank()) return LocalTime.of(9, 0);
         return LocalTime.parse(value);
@@ -0,0 +1,55 @@
+package com.tasknotifier.ui;
+
+import com.tasknotifier.domain.Task;
+import javafx.collections.ObservableList;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Brings a table's item list in line with a new result by removing, inserting and replacing only the rows
+ * that differ, so the selection and scroll position survive a refresh. Rows are matched by task id and
+ * replaced when their {@code updatedAt} changed. Large reorders fall back to a single {@code setAll}.
+ */
+final class TaskListDiff {
+
+    private static final int MAX_MOVES = 64;
+
+    private TaskListDiff() {
+    }
+
+    static void apply(ObservableList<Task> current, List<Task> next) {
+        Set<Long> wanted = new HashSet<>();
+        for (Task task : next) wanted.add(task.getId());
+        List<Task> removed = current.stream().filter(t -> !wanted.contains(t.getId())).toList();
+        if (!removed.isEmpty()) current.removeAll(removed);
+
+        int moves = 0;
+        for (int i = 0; i < next.size(); i++) {
+            Task task = next.get(i);
+            if (i < current.size() && Objects.equals(current.get(i).getId(), task.getId())) {
+                if (current.get(i) != task && !Objects.equals(current.get(i).getUpdatedAt(), task.getUpdatedAt())) {
+                    current.set(i, task);
+                }
+                continue;
+            }
+            if (++moves > MAX_MOVES) {
+                current.setAll(next);
+                return;
+            }
+            int existing = indexOf(current, task.getId(), i + 1);
+            if (existing >= 0) current.remove(existing);
+            current.add(i, task);
+        }
+        if (current.size() > next.size()) current.remove(next.size(), current.size());
+    }
+
+    private static int indexOf(List<Task> tasks, Long id, int from) {
+        for (int i = from; i < tasks.size(); i++) {
+            if (Objects.equals(tasks.get(i).getId(), id)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,156 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactTaskSetTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 6, 1, 9, 0);
+
+    @Test
+    void readsBackEveryFieldExactly() {
+        Task recurring = new Task(7L, "Pay rent", "Before noon", BASE.plusNanos(123_456_789), Priority.HIGH, TaskStatus.IN_PROGRESS,
+                new ArrayList<>(List.of("Home", "finance", "Home")), "task-detail/rent.md",
+                new RecurrenceRule(RecurrenceType.MONTHLY, LocalDate.of(2027, 1, 1), new HashSet<>(Set.of(LocalDate.of(2026, 7, 1))), BASE),
+                new ReminderSettings(false, Integer.MAX_VALUE, Integer.MAX_VALUE, true), BASE.minusDays(3).plusNanos(1));
+        Task plain = new Task(3L, "Undated", "", null, Priority.LOW, TaskStatus.DONE, new ArrayList<>(), "task-detail/undated.md",
+                RecurrenceRule.custom("FREQ=MONTHLY;BYDAY=2TU", null, new HashSet<>()), new ReminderSettings(true, 0, 1, false), BASE);
+        CompactTaskSet set = CompactTaskSet.of(List.of(recurring, plain));
+
+        assertEquals(2, set.size());
+        assertEquals(3L, set.id(0));
+        assertSameTask(recurring, set.findById(7L).orElseThrow());
+        assertSameTask(plain, set.task(0));
+        assertTrue(set.findById(5L).isEmpty());
+        assertEquals(Map.of("Home", 2L, "finance", 1L), set.tagCounts());
+
+        Task view = set.findById(7L).orElseThrow();
+        view.getRecurrenceRule().skippedDates().add(LocalDate.of(2026, 8, 1));
+        view.getTags().add("changed");
+        assertSameTask(recurring, set.findById(7L).orElseThrow());
+    }
+
+    @Test
+    void withInsertsReplacesAndDeletesRows() {
+        CompactTaskSet set = CompactTaskSet.of(List.of(task(2, "b", List.of("x")), task(4, "d", List.of("y", "z")), task(6, "f", List.of())));
+        CompactTaskSet next = set.with(List.of(task(1, "a", List.of("z")), task(4, "D", List.of()), task(9, "i", List.of("x", "x"))), List.of(6L, 8L));
+
+        assertEquals(List.of("b", "d", "f"), set.tasks().stream().map(Task::getTitle).toList());
+        assertEquals(List.of("a", "b", "D", "i"), next.tasks().stream().map(Task::getTitle).toList());
+        assertEquals(List.of("x"), next.findById(2).orElseThrow().getTags());
+        assertEquals(List.of("x", "x"), next.findById(9).orElseThrow().getTags());
+        assertEquals(Map.of("x", 3L, "z", 1L), next.tagCounts());
+        assertThrows(IllegalArgumentException.class, () -> CompactTaskSet.of(List.of(task(1, "a", List.of()), task(1, "b", List.of()))));
+    }
+
+    @Test
+    void rowsMatchTaskFilterOnEveryCriterion() {
+        List<Task> tasks = randomTasks(new Random(7), 400);
+        CompactTaskSet set = CompactTaskSet.of(tasks);
+        TaskFilter filter = new TaskFilter();
+        for (TaskQuery query : queries()) {
+            Set<Long> expected = new HashSet<>(filter.filter(tasks, query).stream().map(Task::getId).toList());
+            Set<Long> actual = new HashSet<>(set.tasks(set.rows(query)).stream().map(Task::getId).toList());
+            assertEquals(expected, actual, query.toString());
+        }
+    }
+
+    @Test
+    void incrementalIndexMatchesARebuiltOne() {
+        Random random = new Random(11);
+        List<Task> tasks = randomTasks(random, 300);
+        CompactTaskSet set = CompactTaskSet.of(tasks);
+        long nextId = 301;
+        for (int round = 0; round < 60; round++) {
+            List<Task> saved = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            for (int i = random.nextInt(4); i > 0; i--) {
+                Task edited = randomTasks(random, 1).get(0);
+                edited.setId(set.id(random.nextInt(set.size())));
+                saved.add(edited);
+            }
+            // Mostly edits and appends, which patch the index; now and then a delete, which rebuilds it.
+            if (random.nextInt(3) == 0) {
+                Task added = randomTasks(random, 1).get(0);
+                added.setId(nextId++);
+                saved.add(added);
+            }
+            if (random.nextInt(8) == 0) deleted.add(set.id(random.nextInt(set.size())));
+            set = set.with(saved, deleted);
+            CompactTaskSet rebuilt = CompactTaskSet.of(set.tasks());
+            for (TaskQuery query : queries()) {
+                assertArrayEquals(rebuilt.rows(query), set.rows(query), query.toString());
+                assertEquals(rebuilt.facets(query), set.facets(query), query.toString());
+            }
+        }
+    }
+
+    @Test
+    void facetsCountEachOptionUnderTheOtherCriteria() {
+        List<Task> tasks = randomTasks(new Random(5), 400);
+        CompactTaskSet set = CompactTaskSet.of(tasks);
+        TaskFilter filter = new TaskFilter();
+        for (TaskQuery query : queries()) {
+            FacetCounts facets = set.facets(query);
+            for (TaskStatus status : TaskStatus.values()) {
+                assertEquals(filter.filter(tasks, query.toBuilder().status(status).build()).size(), facets.byStatus().get(status), query.toString());
+            }
+            for (Priority priority : Priority.values()) {
+                assertEquals(filter.filter(tasks, query.toBuilder().priority(priority).build()).size(), facets.byPriority().get(priority), query.toString());
+            }
+            TaskQuery anyTag = query.toBuilder().tag(null).build();
+            Map<String, Long> byTag = new HashMap<>();
+            filter.filter(tasks, anyTag).forEach(t -> new HashSet<>(t.getTags()).forEach(tag -> byTag.merge(tag, 1L, Long::sum)));
+            assertEquals(byTag, facets.byTag(), query.toString());
+        }
+    }
+
+    private static void assertSameTask(Task expected, Task actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getSummary(), actual.getSummary());
+        assertEquals(expected.getDueDateTime(), actual.getDueDateTime());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getTags(), actual.getTags());
+        assertEquals(expected.getMarkdownPath(), actual.getMarkdownPath());
+        assertEquals(expected.getRecurrenceRule(), actual.getRecurrenceRule());
+        assertEquals(expected.getReminderSettings(), actual.getReminderSettings());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+    }
+
+    private static List<Task> randomTasks(Random random, int count) {
+        String[] tags = {"work", "Work", "home", "errand"};
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            List<String> chosen = new ArrayList<>();
+            for (int t = random.nextInt(3); t > 0; t--) chosen.add(tags[random.nextInt(tags.length)]);
+            tasks.add(new Task((long) i, "Task " + i, "", random.nextInt(5) == 0 ? null : BASE.plusHours(random.nextInt(24 * 30) - 24 * 15),
+                    Priority.values()[random.nextInt(3)], TaskStatus.values()[random.nextInt(4)], chosen, "task-detail/" + i + ".md",
+                    RecurrenceRule.none(), ReminderSettings.defaults(), BASE));
+        }
+        return tasks;
+    }
+
+    private static List<TaskQuery> queries() {
+        return List.of(
+                TaskQuery.all(),
+                TaskQuery.builder().status(TaskStatus.TODO).priority(Priority.HIGH).build(),
+                TaskQuery.builder().tag("WORK").build(),
+                TaskQuery.builder().dueFrom(BASE.toLocalDate()).dueTo(BASE.toLocalDate().plusDays(3)).build(),
+                TaskQuery.builder().dueTo(BASE.toLocalDate().minusDays(1)).occurringIds(Set.of(1L, 2L, 3L)).build(),
+                TaskQuery.builder().ids(Set.of(5L, 50L, 500L)).tag("home").build(),
+                TaskQuery.builder().status(TaskStatus.DONE).tag("errand").dueFrom(BASE.toLocalDate()).build());
+    }
+
+    private static Task task(long id, String title, List<String> tags) {
+        return new Task(id, title, "", BASE, Priority.MEDIUM, TaskStatus.TODO, tags, "task-detail/" + title + ".md",
+                RecurrenceRule.none(), ReminderSettings.defaults(), BASE);
+    }
+}
@@ -0,0 +1,50 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DashboardCountersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 5, 10);
+
+    @Test
+    void tracksChangesAndRollsOverAtMidnight() {
+        InMemoryTaskRepository repo = new InMemoryTaskRepository();
+        repo.save(task("Yesterday", -1, Priority.HIGH, List.of("work")));
+        TaskStore store = new TaskStore(repo);
+        DashboardCounters counters = new DashboardCounters(store, new VirtualClock(TODAY.atTime(12, 0)));
+        Task today = store.save(task("Today", 0, Priority.LOW, List.of("work", "home")));
+        store.save(task("Tomorrow", 1, Priority.LOW, List.of("home")));
+        store.save(task("Next week", 7, Priority.MEDIUM, List.of()));
+        store.save(task("Undated", null, Priority.HIGH, List.of()));
+
+        assertEquals(new DashboardCounters.Summary(1, 1, 2), counters.summary());
+        assertEquals(Map.of("work", 1L, "home", 1L), counters.byTag(DashboardCounters.Bucket.DUE_TODAY));
+
+        today.setStatus(TaskStatus.DONE);
+        store.save(today);
+        assertEquals(new DashboardCounters.Summary(1, 0, 2), counters.summary());
+
+        counters.rollover(TODAY.plusDays(1));
+        assertEquals(new DashboardCounters.Summary(1, 1, 1), counters.summary());
+        assertEquals(Map.of(Priority.LOW, 1L), counters.byPriority(DashboardCounters.Bucket.DUE_TODAY));
+
+        counters.rollover(TODAY.plusDays(9));
+        assertEquals(new DashboardCounters.Summary(3, 0, 0), counters.summary());
+        assertEquals(Map.of(Priority.HIGH, 1L, Priority.LOW, 1L, Priority.MEDIUM, 1L), counters.byPriority(DashboardCounters.Bucket.OVERDUE));
+        assertEquals(Map.of("work", 1L, "home", 1L), counters.byTag(DashboardCounters.Bucket.OVERDUE));
+    }
+
+    private static Task task(String title, Integer dueInDays, Priority priority, List<String> tags) {
+        LocalDateTime due = dueInDays == null ? null : TODAY.plusDays(dueInDays).atTime(9, 0);
+        return new Task(null, title, "", due, priority, TaskStatus.TODO, tags, "task-detail/" + title + ".md",
+                RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,26 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.Task;
+import com.tasknotifier.domain.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class InMemoryTaskRepository implements TaskRepository {
+    List<Task> tasks = new ArrayList<>();
+    long id = 1;
+    public Task save(Task task) { if (task.getId() == null) task.setId(id++); tasks.removeIf(t -> t.getId().equals(task.getId())); tasks.add(task); return task; }
+    public List<Task> saveAll(List<Task> all) { all.forEach(this::save); return all; }
+    public List<Task> findAll() { return tasks; }
+    public List<Task> query(TaskQuery query) { return new TaskFilter().filter(tasks, query); }
+    public java.util.Optional<Task> findById(long id) { return tasks.stream().filter(t -> t.getId() == id).findFirst(); }
+    public void deleteById(long id) { tasks.removeIf(t -> t.getId() == id); }
+    public int deleteAllById(java.util.Collection<Long> ids) { ids.forEach(this::deleteById); return ids.size(); }
+    public int updateStatusAll(java.util.Collection<Long> ids, TaskStatus status, LocalDateTime updatedAt) {
+        tasks.stream().filter(t -> ids.contains(t.getId())).forEach(t -> { t.setStatus(status); t.setUpdatedAt(updatedAt); });
+        return ids.size();
+    }
+    public java.util.Map<String, Long> tagCounts() { return java.util.Map.of(); }
+    public int renameTag(String from, String to) { return 0; }
+}
@@ -0,0 +1,54 @@
+package com.tasknotifier.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void timersReportPercentilesWithinBucketError() {
+        MetricsRegistry.Timer timer = new MetricsRegistry().timer("work");
+        for (long micros = 1; micros <= 1000; micros++) timer.record(micros * 1000);
+
+        MetricsRegistry.Snapshot snapshot = timer.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_500, snapshot.meanNanos());
+        assertEquals(1_000_000, snapshot.maxNanos());
+        assertEquals(500_000, snapshot.p50Nanos(), 500_000 * 0.125);
+        assertEquals(990_000, snapshot.p99Nanos(), 990_000 * 0.125);
+        assertTrue(snapshot.p99Nanos() <= snapshot.maxNanos());
+
+        timer.reset();
+        assertEquals(new MetricsRegistry.Snapshot(0, 0, 0, 0, 0), timer.snapshot());
+    }
+
+    @Test
+    void bucketsCoverEveryValueWithoutGaps() {
+        for (long value : new long[]{0, 1, 7, 8, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE / 4}) {
+            int index = MetricsRegistry.Timer.index(value);
+            assertTrue(value <= MetricsRegistry.Timer.upperBound(index), "value " + value);
+            assertTrue(index == 0 || value > MetricsRegistry.Timer.upperBound(index - 1), "value " + value);
+        }
+    }
+
+    @Test
+    void replaysExistingMetricsToNewListeners() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("sent").add(3);
+        List<String> seen = new ArrayList<>();
+        registry.subscribe(new MetricsRegistry.Listener() {
+            @Override public void timerAdded(String name, MetricsRegistry.Timer timer) { seen.add("timer:" + name); }
+            @Override public void counterAdded(String name, MetricsRegistry.Counter counter) { seen.add("counter:" + name); }
+        });
+        registry.timer("tick");
+        registry.timer("tick");
+
+        assertEquals(List.of("counter:sent", "timer:tick"), seen);
+        assertSame(registry.counter("sent"), registry.counter("sent"));
+        assertEquals(3, registry.counter("sent").count());
+    }
+}
@@ -0,0 +1,27 @@
+package com.tasknotifier.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NotificationDispatcherTest {
+
+    @Test
+    void mergesBurstsAndCountsDrops() {
+        List<String> delivered = new ArrayList<>();
+        NotificationDispatcher dispatcher = new NotificationDispatcher((title, message) -> delivered.add(title + ": " + message),
+                new NotificationDispatcher.Settings(8, 60, Duration.ZERO));
+        for (int i = 1; i <= 7; i++) dispatcher.notify("Task overdue", "T" + i);
+        dispatcher.notify("Task due soon", "Soon");
+        dispatcher.notify("Task overdue", "Overflow");
+
+        dispatcher.dispatchPending();
+
+        assertEquals(List.of("7 tasks overdue: T1, T2, T3, T4, T5 and 2 more", "Task due soon: Soon"), delivered);
+        assertEquals(new NotificationDispatcher.Stats(9, 2, 6, 1, 0), dispatcher.stats());
+    }
+}
@@ -0,0 +1,85 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccurrenceMaterializerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 4);
+
+    @Test
+    void materializesUpcomingOccurrencesAndFollowsScheduleChanges() throws Exception {
+        InMemoryTaskRepository repo = new InMemoryTaskRepository();
+        Task weekly = repo.save(task("Weekly", LocalDateTime.of(2026, 2, 23, 9, 0),
+                new RecurrenceRule(RecurrenceType.WEEKLY, null, new HashSet<>())));
+        TaskStore store = new TaskStore(repo);
+        MapOccurrences table = new MapOccurrences();
+        OccurrenceMaterializer materializer = new OccurrenceMaterializer(table, new RecurrenceEngine(), 3, new VirtualClock(TODAY.atTime(12, 0)));
+        materializer.start(store);
+        materializer.flush();
+
+        // The overdue instance stays, followed by the next three from today on.
+        assertEquals(List.of(LocalDateTime.of(2026, 2, 23, 9, 0), LocalDateTime.of(2026, 3, 9, 9, 0),
+                LocalDateTime.of(2026, 3, 16, 9, 0), LocalDateTime.of(2026, 3, 23, 9, 0)), table.rows.get(weekly.getId()));
+        assertEquals(Set.of(weekly.getId()), materializer.taskIdsBetween(TODAY, TODAY.plusDays(7)));
+
+        Task once = store.save(task("Once", LocalDateTime.of(2026, 3, 5, 10, 0), RecurrenceRule.none()));
+        materializer.flush();
+        assertEquals(List.of(LocalDateTime.of(2026, 3, 5, 10, 0)), table.rows.get(once.getId()));
+
+        int writes = table.writes.get();
+        Task touched = store.findById(weekly.getId()).orElseThrow();
+        touched.setUpdatedAt(LocalDateTime.now());
+        store.save(touched);
+        materializer.flush();
+        assertEquals(writes, table.writes.get());
+
+        once.setStatus(TaskStatus.DONE);
+        store.save(once);
+        store.deleteById(weekly.getId());
+        materializer.flush();
+        assertTrue(table.rows.isEmpty());
+        materializer.stop();
+    }
+
+    private static Task task(String title, LocalDateTime due, RecurrenceRule rule) {
+        return new Task(null, title, "", due, Priority.MEDIUM, TaskStatus.TODO, List.of(), "task-detail/" + title + ".md",
+                rule, ReminderSettings.defaults(), LocalDateTime.now());
+    }
+
+    private static final class MapOccurrences implements OccurrenceRepository {
+        private final Map<Long, List<LocalDateTime>> rows = new HashMap<>();
+        private final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public void replace(Map<Long, List<LocalDateTime>> occurrencesByTask) {
+            writes.incrementAndGet();
+            occurrencesByTask.forEach((id, list) -> {
+                if (list.isEmpty()) rows.remove(id); else rows.put(id, list);
+            });
+        }
+
+        @Override
+        public void replaceAll(Map<Long, List<LocalDateTime>> occurrencesByTask) {
+            writes.incrementAndGet();
+            rows.clear();
+            rows.putAll(occurrencesByTask);
+        }
+
+        @Override
+        public List<Occurrence> findBetween(LocalDate from, LocalDate to) {
+            List<Occurrence> result = new ArrayList<>();
+            rows.forEach((id, list) -> list.stream()
+                    .filter(at -> !at.toLocalDate().isBefore(from) && !at.toLocalDate().isAfter(to))
+                    .forEach(at -> result.add(new Occurrence(id, at))));
+            return result;
+        }
+    }
+}
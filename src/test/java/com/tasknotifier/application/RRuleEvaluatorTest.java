@@ -0,0 +1,104 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.RRule;
+import com.tasknotifier.domain.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RRuleEvaluatorTest {
+
+    private static final LocalDateTime ANCHOR = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Test
+    void parsesAndFormatsCanonically() {
+        RRule rule = RRule.parse("RRULE:freq=monthly;byday=mo,tu,we,th,fr;bysetpos=-1;wkst=MO");
+        assertEquals("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1", rule.format());
+        assertEquals(rule, RRule.parse(rule.format()));
+        assertEquals(new RRule.WeekdayNum(2, DayOfWeek.TUESDAY), RRule.parse("FREQ=MONTHLY;BYDAY=+2TU").byDay().get(0));
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> RRule.parse("INTERVAL=2"));
+        assertThrows(IllegalArgumentException.class, () -> RRule.parse("FREQ=HOURLY"));
+        assertThrows(IllegalArgumentException.class, () -> RRule.parse("FREQ=WEEKLY;BYDAY=2TU"));
+        assertThrows(IllegalArgumentException.class, () -> RRule.parse("FREQ=DAILY;COUNT=2;UNTIL=20260301"));
+        assertThrows(IllegalArgumentException.class, () -> RRule.parse("FREQ=MONTHLY;BYMONTHDAY=32"));
+        assertThrows(IllegalArgumentException.class, () -> RRule.parse("FREQ=DAILY;BYHOUR=9"));
+    }
+
+    @Test
+    void expandsSecondTuesdayOfEachMonth() {
+        assertEquals(List.of(date(2026, 1, 13), date(2026, 2, 10), date(2026, 3, 10)),
+                take("FREQ=MONTHLY;BYDAY=2TU", ANCHOR, ANCHOR.toLocalDate(), 3));
+    }
+
+    @Test
+    void expandsLastBusinessDayOfEachMonth() {
+        assertEquals(List.of(date(2026, 1, 30), date(2026, 2, 27), date(2026, 3, 31)),
+                take("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1", ANCHOR, ANCHOR.toLocalDate(), 3));
+    }
+
+    @Test
+    void expandsWeekdaysAndSkipsShortMonths() {
+        assertEquals(List.of(date(2026, 1, 1), date(2026, 1, 2), date(2026, 1, 5), date(2026, 1, 6)),
+                take("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR", ANCHOR, ANCHOR.toLocalDate(), 4));
+        assertEquals(List.of(date(2026, 1, 31), date(2026, 3, 31), date(2026, 5, 31)),
+                take("FREQ=MONTHLY;BYMONTHDAY=31", ANCHOR, ANCHOR.toLocalDate(), 3));
+    }
+
+    @Test
+    void honorsIntervalCountAndUntil() {
+        assertEquals(List.of(date(2026, 1, 1), date(2026, 1, 3), date(2026, 1, 5)),
+                take("FREQ=DAILY;INTERVAL=2;COUNT=3", ANCHOR, ANCHOR.toLocalDate(), 10));
+        // COUNT is counted from the anchor, not from the requested start.
+        assertEquals(List.of(date(2026, 1, 5)), take("FREQ=DAILY;INTERVAL=2;COUNT=3", ANCHOR, date(2026, 1, 4), 10));
+        assertEquals(List.of(date(2026, 1, 1), date(2026, 1, 8), date(2026, 1, 15)),
+                take("FREQ=WEEKLY;UNTIL=20260115T235959Z", ANCHOR, ANCHOR.toLocalDate(), 10));
+    }
+
+    @Test
+    void engineRunsCustomRulesWithSkippedDates() {
+        RecurrenceEngine engine = new RecurrenceEngine();
+        RecurrenceRule rule = RecurrenceRule.custom("FREQ=MONTHLY;BYDAY=2TU", null, Set.of(date(2026, 2, 10)))
+                .withAnchor(LocalDateTime.of(2026, 1, 13, 9, 0));
+        assertEquals(LocalDateTime.of(2026, 3, 10, 9, 0), engine.next(LocalDateTime.of(2026, 1, 13, 9, 0), rule));
+        assertEquals("FREQ=MONTHLY;BYDAY=2TU", rule.toRRule().format());
+    }
+
+    @Test
+    void expandsDecadesOfWeekdaysQuickly() {
+        RRuleEvaluator evaluator = new RRuleEvaluator(RRule.parse("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR"));
+        long started = System.nanoTime();
+        int count = 0;
+        for (int run = 0; run < 20; run++) {
+            Iterator<LocalDateTime> iterator = evaluator.iterator(ANCHOR, date(2036, 1, 1));
+            for (int i = 0; i < 2610; i++) {
+                iterator.next();
+                count++;
+            }
+        }
+        assertEquals(52_200, count);
+        assertTrue(System.nanoTime() - started < 2_000_000_000L);
+    }
+
+    private static List<LocalDate> take(String rrule, LocalDateTime anchor, LocalDate from, int limit) {
+        Iterator<LocalDateTime> iterator = new RRuleEvaluator(RRule.parse(rrule)).iterator(anchor, from);
+        List<LocalDate> dates = new ArrayList<>();
+        while (iterator.hasNext() && dates.size() < limit) dates.add(iterator.next().toLocalDate());
+        return dates;
+    }
+
+    private static LocalDate date(int year, int month, int day) {
+        return LocalDate.of(year, month, day);
+    }
+}
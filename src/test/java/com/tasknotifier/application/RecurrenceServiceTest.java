@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,4 +32,31 @@ class RecurrenceServiceTest {
         RecurrenceRule rule = new RecurrenceRule(RecurrenceType.MONTHLY, LocalDate.of(2026, 1, 31), new HashSet<>());
         assertNull(service.nextOccurrence(due, rule));
     }
+
+    @Test
+    void countsMonthlyOccurrencesFromAnchorWithoutDrift() {
+        RecurrenceService service = new RecurrenceService();
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceType.MONTHLY, null, new HashSet<>(), LocalDateTime.of(2026, 1, 31, 9, 0));
+        LocalDateTime february = service.nextOccurrence(LocalDateTime.of(2026, 1, 31, 9, 0), rule);
+        assertEquals(LocalDateTime.of(2026, 2, 28, 9, 0), february);
+        assertEquals(LocalDateTime.of(2026, 3, 31, 9, 0), service.nextOccurrence(february, rule));
+        assertEquals(LocalDateTime.of(2027, 1, 31, 9, 0), RecurrenceEngine.occurrence(rule.anchor(), RecurrenceType.MONTHLY, 12));
+    }
+
+    @Test
+    void expandsOccurrencesLazilyOverRange() {
+        RecurrenceEngine engine = new RecurrenceEngine();
+        HashSet<LocalDate> skipped = new HashSet<>(List.of(LocalDate.of(2026, 3, 17)));
+        LocalDateTime due = LocalDateTime.of(2026, 3, 3, 8, 30);
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceType.WEEKLY, LocalDate.of(2026, 4, 1), skipped, LocalDateTime.of(2026, 2, 24, 8, 30));
+
+        List<LocalDateTime> expected = List.of(LocalDateTime.of(2026, 3, 10, 8, 30), LocalDateTime.of(2026, 3, 24, 8, 30),
+                LocalDateTime.of(2026, 3, 31, 8, 30));
+        assertEquals(expected, engine.occurrences(due, rule, LocalDate.of(2026, 3, 5), LocalDate.of(2026, 12, 31)).toList());
+        assertSame(engine.expand(due, rule, LocalDate.of(2026, 3, 5), LocalDate.of(2026, 12, 31)),
+                engine.expand(due, rule, LocalDate.of(2026, 3, 5), LocalDate.of(2026, 12, 31)));
+        assertEquals(LocalDateTime.of(2026, 3, 3, 8, 30), engine.occurrences(due, rule, LocalDate.MIN, LocalDate.MAX).findFirst().orElseThrow());
+        RecurrenceRule endless = new RecurrenceRule(RecurrenceType.DAILY, null, new HashSet<>());
+        assertEquals(1000, engine.occurrences(due, endless, LocalDate.MIN, LocalDate.MAX).limit(1000).count());
+    }
 }
@@ -0,0 +1,48 @@
+package com.tasknotifier.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReminderPunctualityTest {
+
+    @Test
+    void recordsLatenessAndKeepsBreachesOfTheBudget() {
+        LocalDateTime due = LocalDateTime.of(2026, 4, 1, 9, 0);
+        VirtualClock clock = new VirtualClock(due.plusSeconds(1));
+        ReminderPunctuality punctuality = new ReminderPunctuality(Duration.ofSeconds(5), new MetricsRegistry(), clock);
+        punctuality.record("Task due soon", "On time", due);
+        clock.set(due.minusSeconds(1));
+        punctuality.record("Task due soon", "Early", due);
+        clock.set(due.plusSeconds(42));
+        punctuality.record("Task overdue", "Late", due);
+
+        assertEquals(3, punctuality.lateness().count());
+        assertEquals(Duration.ofSeconds(42).toNanos(), punctuality.lateness().maxNanos());
+        assertEquals(List.of(new ReminderPunctuality.Breach("Task overdue", "Late", due, due.plusSeconds(42))), punctuality.recentBreaches());
+        assertEquals(Duration.ofSeconds(42), punctuality.recentBreaches().get(0).lateness());
+    }
+
+    @Test
+    void dispatcherReportsIntendedInstantsOfEveryMergedReminder() {
+        ReminderPunctuality punctuality = new ReminderPunctuality(Duration.ofMinutes(1), new MetricsRegistry());
+        List<String> delivered = new ArrayList<>();
+        NotificationDispatcher dispatcher = new NotificationDispatcher((title, message) -> delivered.add(title),
+                new NotificationDispatcher.Settings(8, 60, Duration.ZERO), punctuality);
+        LocalDateTime now = LocalDateTime.now();
+        dispatcher.notify("Task overdue", "A", now.minusMinutes(10));
+        dispatcher.notify("Task overdue", "B", now);
+        dispatcher.notify("Plain", "No intended instant");
+
+        dispatcher.dispatchPending();
+
+        assertEquals(List.of("2 tasks overdue", "Plain"), delivered);
+        assertEquals(2, punctuality.lateness().count());
+        assertEquals(List.of("A"), punctuality.recentBreaches().stream().map(ReminderPunctuality.Breach::message).toList());
+    }
+}
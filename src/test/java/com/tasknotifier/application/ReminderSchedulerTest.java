@@ -2,33 +2,123 @@ package com.tasknotifier.application;
 
 import com.tasknotifier.domain.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ReminderSchedulerTest {
 
+    @TempDir
+    Path markdownDir;
+
     @Test
     void emitsReminderForDueTask() {
         List<String> messages = new ArrayList<>();
-        TaskRepository repo = new InMemoryRepo();
-        TaskService service = new TaskService(repo, new RecurrenceService());
+        TaskStore store = new TaskStore(new InMemoryTaskRepository());
+        TaskService service = new TaskService(store, new RecurrenceService());
         service.save(new Task(null, "Due soon", "", LocalDateTime.now().plusMinutes(5), Priority.MEDIUM, TaskStatus.TODO,
-                List.of(), "task-detail/t.md", RecurrenceRule.none(), new ReminderSettings(true, 10, 60, false), LocalDateTime.now()));
-        ReminderScheduler scheduler = new ReminderScheduler(service, (title, message) -> messages.add(title + message));
+                List.of(), markdownDir.resolve("t.md").toString(), RecurrenceRule.none(), new ReminderSettings(true, 10, 60, false), LocalDateTime.now()));
+        ReminderScheduler scheduler = new ReminderScheduler(store, (title, message) -> messages.add(title + message), new InMemoryLedger());
+        scheduler.check();
+        assertEquals(1, messages.size());
+    }
+
+    @Test
+    void indexesTasksSavedAfterConstruction() {
+        List<String> messages = new ArrayList<>();
+        TaskStore store = new TaskStore(new InMemoryTaskRepository());
+        TaskService service = new TaskService(store, new RecurrenceService());
+        ReminderScheduler scheduler = new ReminderScheduler(store, (title, message) -> messages.add(title + message), new InMemoryLedger());
+        service.save(new Task(null, "Later", "", LocalDateTime.now().plusDays(2), Priority.MEDIUM, TaskStatus.TODO,
+                List.of(), markdownDir.resolve("later.md").toString(), RecurrenceRule.none(), new ReminderSettings(true, 10, 60, false), LocalDateTime.now()));
+        Task overdue = service.save(new Task(null, "Late", "", LocalDateTime.now().minusHours(1), Priority.MEDIUM, TaskStatus.TODO,
+                List.of(), markdownDir.resolve("late.md").toString(), RecurrenceRule.none(), new ReminderSettings(true, 10, 60, false), LocalDateTime.now()));
+        scheduler.check();
+        assertEquals(List.of("Task overdueLate"), messages);
+
         scheduler.check();
         assertEquals(1, messages.size());
+        service.delete(overdue.getId());
+        scheduler.check();
+        assertEquals(1, messages.size());
+    }
+
+    @Test
+    void skipsCompletedTasks() {
+        List<String> messages = new ArrayList<>();
+        TaskStore store = new TaskStore(new InMemoryTaskRepository());
+        TaskService service = new TaskService(store, new RecurrenceService());
+        ReminderScheduler scheduler = new ReminderScheduler(store, (title, message) -> messages.add(title + message), new InMemoryLedger());
+        Task task = service.save(new Task(null, "Done soon", "", LocalDateTime.now().plusMinutes(5), Priority.MEDIUM, TaskStatus.TODO,
+                List.of(), markdownDir.resolve("done.md").toString(), RecurrenceRule.none(), new ReminderSettings(true, 10, 60, false), LocalDateTime.now()));
+        service.markDoneToggle(task);
+        scheduler.check();
+        assertEquals(0, messages.size());
+    }
+
+    @Test
+    void repeatsOverdueRemindersFromLedger() {
+        List<String> messages = new ArrayList<>();
+        TaskStore store = new TaskStore(new InMemoryTaskRepository());
+        TaskService service = new TaskService(store, new RecurrenceService());
+        InMemoryLedger ledger = new InMemoryLedger();
+        Task task = service.save(new Task(null, "Late", "", LocalDateTime.now().minusHours(3), Priority.MEDIUM, TaskStatus.TODO,
+                List.of(), markdownDir.resolve("late.md").toString(), RecurrenceRule.none(), new ReminderSettings(true, 10, 60, false), LocalDateTime.now()));
+        new ReminderScheduler(store, (title, message) -> messages.add(title + message), ledger).check();
+        assertEquals(1, messages.size());
+
+        ReminderScheduler restarted = new ReminderScheduler(store, (title, message) -> messages.add(title + message), ledger);
+        restarted.check();
+        assertEquals(1, messages.size());
+
+        ledger.entries.replaceAll(e -> new ReminderLedger.Entry(e.taskId(), e.kind(), e.firedAt().minusMinutes(61)));
+        restarted = new ReminderScheduler(store, (title, message) -> messages.add(title + message), ledger);
+        restarted.check();
+        assertEquals(2, messages.size());
+
+        service.markDoneToggle(task);
+        assertTrue(ledger.entries.isEmpty());
+    }
+
+    @Test
+    void keepsTasksCompletedWhileTheirReminderFires() {
+        TaskStore store = new TaskStore(new InMemoryTaskRepository());
+        TaskService service = new TaskService(store, new RecurrenceService());
+        Task task = service.save(new Task(null, "Late", "", LocalDateTime.now().minusHours(1), Priority.MEDIUM, TaskStatus.TODO,
+                List.of(), markdownDir.resolve("late.md").toString(), RecurrenceRule.none(), new ReminderSettings(true, 10, 60, false), LocalDateTime.now()));
+        List<String> messages = new ArrayList<>();
+        ReminderScheduler scheduler = new ReminderScheduler(store, (title, message) -> {
+            messages.add(title + message);
+            service.markDoneToggle(store.findById(task.getId()).orElseThrow());
+        }, new InMemoryLedger());
+        scheduler.check();
+        assertEquals(1, messages.size());
+        assertTrue(scheduler.nextFireAt().isEmpty());
+    }
+
+    @Test
+    void recordsNothingForTasksDeletedWhileTheirReminderFires() {
+        TaskStore store = new TaskStore(new InMemoryTaskRepository());
+        TaskService service = new TaskService(store, new RecurrenceService());
+        InMemoryLedger ledger = new InMemoryLedger();
+        Task task = service.save(new Task(null, "Late", "", LocalDateTime.now().minusHours(1), Priority.MEDIUM, TaskStatus.TODO,
+                List.of(), markdownDir.resolve("late.md").toString(), RecurrenceRule.none(), new ReminderSettings(true, 10, 60, false), LocalDateTime.now()));
+        ReminderScheduler scheduler = new ReminderScheduler(store, (title, message) -> service.delete(task.getId()), ledger);
+        scheduler.check();
+        assertTrue(ledger.entries.isEmpty());
+        assertTrue(scheduler.nextFireAt().isEmpty());
     }
 
-    private static class InMemoryRepo implements TaskRepository {
-        List<Task> tasks = new ArrayList<>();
-        long id = 1;
-        public Task save(Task task) { if (task.getId() == null) task.setId(id++); tasks.removeIf(t -> t.getId().equals(task.getId())); tasks.add(task); return task; }
-        public List<Task> findAll() { return tasks; }
-        public java.util.Optional<Task> findById(long id) { return tasks.stream().filter(t -> t.getId() == id).findFirst(); }
-        public void deleteById(long id) { tasks.removeIf(t -> t.getId() == id); }
+    private static class InMemoryLedger implements ReminderLedger {
+        List<Entry> entries = new ArrayList<>();
+        public List<Entry> findAll() { return new ArrayList<>(entries); }
+        public void recordAll(List<Entry> fired) { fired.forEach(e -> { entries.removeIf(x -> x.taskId() == e.taskId() && x.kind() == e.kind()); entries.add(e); }); }
+        public void evict(long taskId) { entries.removeIf(e -> e.taskId() == taskId); }
     }
 }
@@ -0,0 +1,203 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.*;
+
+import java.nio.file.Path;
+import java.time.*;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.*;
+
+/**
+ * Replays reminders for a synthetic set of recurring tasks on a {@link VirtualClock}. The clock jumps straight
+ * to the scheduler's next fire instant, so a simulated year takes seconds. A simulated user completes each
+ * instance after its first, second or third reminder, which rolls the task forward through {@link TaskService}.
+ * Every reminder is checked against the expected instance, kind and time, and dashboard counts are checked
+ * against {@link TaskFilter} at each local midnight.
+ *
+ * <p>A reminder is on time when it fires at the first instant whose local time reaches its fire time. For a
+ * time skipped by a DST gap that is the end of the gap; for a repeated time it is the first pass. A before-due
+ * reminder that can only fire once the task is due, because the gap swallowed both, goes out as overdue.
+ */
+class ReminderSimulation {
+
+    private static final String[] RRULES = {
+            "FREQ=WEEKLY;BYDAY=MO,WE,FR", "FREQ=MONTHLY;BYDAY=2TU", "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1"};
+    // Midnight, the US fall-back overlap, the spring-forward gap, and ordinary hours.
+    private static final LocalTime[] DUE_TIMES = {
+            LocalTime.MIDNIGHT, LocalTime.of(0, 15), LocalTime.of(1, 30), LocalTime.of(2, 30), LocalTime.of(9, 0), LocalTime.of(23, 45)};
+    private static final int[] LEAD_MINUTES = {15, 30, 60};
+    private static final int REPEAT_MINUTES = 60;
+
+    private final VirtualClock clock;
+    private final ZoneId zone;
+    private final TaskStore store;
+    private final TaskService service;
+    private final TaskFilter filter;
+    private final DashboardCounters dashboard;
+    private final ReminderScheduler scheduler;
+    private final RecurrenceEngine engine = new RecurrenceEngine();
+    private final Map<String, Tracked> byTitle = new HashMap<>();
+    private final List<Fired> pending = new ArrayList<>();
+    private final List<String> violations = new ArrayList<>();
+    private long reminders;
+    private long completions;
+
+    ReminderSimulation(Instant start, ZoneId zone, int tasks, long seed, Path markdownDir) {
+        this.zone = zone;
+        this.clock = new VirtualClock(start, zone);
+        this.store = new TaskStore(new InMemoryTaskRepository());
+        this.service = new TaskService(store, new RecurrenceService(), clock);
+        this.filter = new TaskFilter(clock);
+        Random random = new Random(seed);
+        LocalDate firstDay = LocalDate.ofInstant(start, zone).plusDays(1);
+        for (int i = 0; i < tasks; i++) {
+            LocalDateTime due = firstDay.plusDays(random.nextInt(7)).atTime(DUE_TIMES[random.nextInt(DUE_TIMES.length)]);
+            RecurrenceRule rule = rule(random.nextInt(4), random, due);
+            int lead = LEAD_MINUTES[random.nextInt(LEAD_MINUTES.length)];
+            Task task = service.save(new Task(null, "Task " + i, "", due, Priority.MEDIUM, TaskStatus.TODO, List.of(),
+                    markdownDir.resolve("task-" + i + ".md").toString(), rule, new ReminderSettings(true, lead, REPEAT_MINUTES, false),
+                    LocalDateTime.now(clock)));
+            byTitle.put(task.getTitle(), new Tracked(task.getId(), rule, lead, 1 + random.nextInt(3), due));
+        }
+        this.dashboard = new DashboardCounters(store, clock);
+        this.scheduler = new ReminderScheduler(store, new Recorder(), new NoLedger(), clock);
+    }
+
+    Result run(Duration length) {
+        Instant end = clock.instant().plus(length);
+        Instant midnight = nextMidnight(clock.instant());
+        while (true) {
+            Instant fireAt = scheduler.nextFireAt().map(this::instantOf).orElse(Instant.MAX);
+            Instant step = fireAt.isBefore(midnight) ? fireAt : midnight;
+            if (step.isAfter(end)) break;
+            boolean overdue = !step.isAfter(clock.instant());
+            if (!overdue) clock.set(step);
+            if (step.equals(midnight)) {
+                checkDashboard();
+                midnight = nextMidnight(midnight);
+            }
+            if (fireAt.isAfter(step)) continue;
+            scheduler.check();
+            if (pending.isEmpty() && overdue) throw new IllegalStateException("Scheduler stalled at " + LocalDateTime.now(clock));
+            List<Fired> fired = new ArrayList<>(pending);
+            pending.clear();
+            fired.forEach(this::verify);
+        }
+        clock.set(end);
+        for (Tracked tracked : byTitle.values()) {
+            if (!instantOf(tracked.expectedAt()).isAfter(end)) {
+                violations.add("Missed " + tracked.stage + " for task " + tracked.taskId + " due " + tracked.due);
+            }
+        }
+        return new Result(length, byTitle.size(), reminders, completions, List.copyOf(violations));
+    }
+
+    private void verify(Fired fired) {
+        reminders++;
+        Tracked tracked = byTitle.get(fired.message());
+        LocalDateTime now = LocalDateTime.now(clock);
+        boolean dueSoon = tracked.stage == Stage.BEFORE_DUE && now.isBefore(tracked.due);
+        String kind = dueSoon ? "Task due soon" : "Task overdue";
+        LocalDateTime expected = tracked.expectedAt();
+        if (!fired.title().equals(kind) || !expected.equals(fired.intendedAt())) {
+            violations.add("Task " + tracked.taskId + " expected " + kind + " at " + expected + " but got " + fired.title() + " at " + fired.intendedAt());
+        } else if (!clock.instant().equals(instantOf(expected))) {
+            violations.add("Task " + tracked.taskId + " reminder for " + expected + " fired late at " + now);
+        }
+        if (++tracked.sent == tracked.patience) {
+            service.markDoneToggle(store.findById(tracked.taskId).orElseThrow());
+            completions++;
+            tracked.due = engine.next(tracked.due, tracked.rule);
+            tracked.stage = Stage.BEFORE_DUE;
+            tracked.sent = 0;
+        } else if (dueSoon) {
+            tracked.stage = Stage.OVERDUE;
+        } else {
+            tracked.stage = Stage.REPEAT;
+            tracked.lastOverdue = now;
+        }
+    }
+
+    private void checkDashboard() {
+        dashboard.rollover(LocalDate.now(clock));
+        List<Task> all = store.findAll();
+        long overdue = filter.filter(all, filter.toQuery(null, null, null, TaskFilter.DueRange.OVERDUE, null)).size();
+        long today = filter.filter(all, filter.toQuery(null, null, null, TaskFilter.DueRange.TODAY, null)).size();
+        DashboardCounters.Summary summary = dashboard.summary();
+        if (summary.overdue() != overdue || summary.dueToday() != today) {
+            violations.add("Dashboard at " + LocalDate.now(clock) + " showed " + summary + " but the filter found " + overdue + " overdue, " + today + " today");
+        }
+    }
+
+    // The first instant at which the local time is at or past {@code local}.
+    private Instant instantOf(LocalDateTime local) {
+        ZoneOffsetTransition transition = zone.getRules().getTransition(local);
+        if (transition != null && transition.isGap()) return transition.getInstant();
+        return local.atZone(zone).withEarlierOffsetAtOverlap().toInstant();
+    }
+
+    private Instant nextMidnight(Instant after) {
+        return LocalDate.ofInstant(after, zone).plusDays(1).atStartOfDay(zone).toInstant();
+    }
+
+    private static RecurrenceRule rule(int kind, Random random, LocalDateTime due) {
+        return switch (kind) {
+            case 0 -> new RecurrenceRule(RecurrenceType.DAILY, null, new HashSet<>(), due);
+            case 1 -> new RecurrenceRule(RecurrenceType.WEEKLY, null, new HashSet<>(), due);
+            case 2 -> new RecurrenceRule(RecurrenceType.MONTHLY, null, new HashSet<>(), due);
+            default -> RecurrenceRule.custom(RRULES[random.nextInt(RRULES.length)], null, new HashSet<>()).withAnchor(due);
+        };
+    }
+
+    record Result(Duration simulated, int tasks, long reminders, long completions, List<String> violations) {}
+
+    private enum Stage { BEFORE_DUE, OVERDUE, REPEAT }
+
+    private static final class Tracked {
+        final long taskId;
+        final RecurrenceRule rule;
+        final int lead;
+        // Reminders the user lets pass for each instance before completing it.
+        final int patience;
+        LocalDateTime due;
+        LocalDateTime lastOverdue;
+        Stage stage = Stage.BEFORE_DUE;
+        int sent;
+
+        Tracked(long taskId, RecurrenceRule rule, int lead, int patience, LocalDateTime due) {
+            this.taskId = taskId;
+            this.rule = rule;
+            this.lead = lead;
+            this.patience = patience;
+            this.due = due;
+        }
+
+        LocalDateTime expectedAt() {
+            return switch (stage) {
+                case BEFORE_DUE -> due.minusMinutes(lead);
+                case OVERDUE -> due;
+                case REPEAT -> lastOverdue.plusMinutes(REPEAT_MINUTES);
+            };
+        }
+    }
+
+    private record Fired(String title, String message, LocalDateTime intendedAt) {}
+
+    private final class Recorder implements NotificationService {
+        @Override
+        public void notify(String title, String message) {
+            notify(title, message, null);
+        }
+
+        @Override
+        public void notify(String title, String message, LocalDateTime intendedAt) {
+            pending.add(new Fired(title, message, intendedAt));
+        }
+    }
+
+    private static final class NoLedger implements ReminderLedger {
+        public List<Entry> findAll() { return List.of(); }
+        public void recordAll(List<Entry> entries) { }
+        public void evict(long taskId) { }
+    }
+}
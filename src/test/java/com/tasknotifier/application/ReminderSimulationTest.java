@@ -0,0 +1,31 @@
+package com.tasknotifier.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReminderSimulationTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @TempDir
+    Path markdownDir;
+
+    @Test
+    void firesEveryReminderOnTimeForAYearAcrossDstChanges() {
+        ReminderSimulation simulation = new ReminderSimulation(LocalDateTime.of(2026, 1, 1, 8, 0).atZone(NEW_YORK).toInstant(),
+                NEW_YORK, 200, 42, markdownDir);
+        ReminderSimulation.Result result = simulation.run(Duration.ofDays(365));
+
+        assertEquals(List.of(), result.violations());
+        assertTrue(result.completions() > 15_000, "completions: " + result.completions());
+        assertTrue(result.reminders() > result.completions());
+    }
+}
@@ -0,0 +1,72 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.application.SearchQuery.*;
+import com.tasknotifier.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchQueryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 10);
+
+    @Test
+    void parsesFieldsPhrasesAndNegation() {
+        SearchQuery query = SearchQuery.parse("tag:work priority:HIGH due:<7d status:in-progress \"exact phrase\" -tag:\"side project\" plain");
+
+        assertEquals(List.of(
+                new Clause(new TagIs("work"), false),
+                new Clause(new PriorityIs(Priority.HIGH), false),
+                new Clause(new Due(Comparison.LT, null, 7), false),
+                new Clause(new StatusIs(TaskStatus.IN_PROGRESS), false),
+                new Clause(new Phrase("exact phrase"), false),
+                new Clause(new TagIs("side project"), true),
+                new Clause(new Word("plain"), false)), query.clauses());
+        assertSame(query, SearchQuery.parse(query.text()));
+        assertTrue(query.hasRequiredText());
+        assertFalse(query.isPlainWords());
+    }
+
+    @Test
+    void readsUnknownOrHalfTypedTermsAsWords() {
+        assertEquals(List.of(new Clause(new Word("priority:hi"), false), new Clause(new Word("note:x"), false),
+                new Clause(new Word("due:<"), false), new Clause(new Word("-"), false), new Clause(new Phrase("open ended"), false)),
+                SearchQuery.parse("priority:hi note:x due:< - \"open ended").clauses());
+        assertEquals(List.of(new Clause(new Due(Comparison.GE, LocalDate.of(2026, 7, 1), 0), false),
+                new Clause(new Due(Comparison.EQ, null, -14), true), new Clause(new Due(Comparison.LE, null, 1), false)),
+                SearchQuery.parse("due:>=2026-07-01 -due:-2w due:<=tomorrow").clauses());
+        assertTrue(SearchQuery.parse("report draft").isPlainWords());
+        assertFalse(SearchQuery.parse("-tag:home status:done").hasRequiredText());
+    }
+
+    @Test
+    void predicateAppliesEveryClause() {
+        Task report = task("Quarterly report", "Send the exact phrase", TODAY.plusDays(3), Priority.HIGH, TaskStatus.TODO, "work");
+        Task call = task("Call plumber", "", TODAY.minusDays(1), Priority.LOW, TaskStatus.DONE, "home");
+        Task undated = task("Read book", "someday", null, Priority.MEDIUM, TaskStatus.TODO, "Side Project");
+        List<Task> tasks = List.of(report, call, undated);
+
+        assertEquals(List.of(report), matching("tag:WORK priority:high due:<7d status:todo", tasks));
+        assertEquals(List.of(report), matching("\"EXACT PHRASE\" -tag:home", tasks));
+        assertEquals(List.of(report, undated), matching("-status:done", tasks));
+        assertEquals(List.of(call), matching("due:<today", tasks));
+        assertEquals(List.of(call, undated), matching("-due:>=today", tasks));
+        assertEquals(List.of(undated), matching("tag:\"side project\" proj", tasks));
+        assertEquals(List.of(), matching("report -quarterly", tasks));
+    }
+
+    private static List<Task> matching(String text, List<Task> tasks) {
+        Predicate<Task> predicate = SearchQuery.parse(text).predicate(TODAY);
+        return tasks.stream().filter(predicate).toList();
+    }
+
+    private static Task task(String title, String summary, LocalDate due, Priority priority, TaskStatus status, String tag) {
+        return new Task(1L, title, summary, due == null ? null : due.atTime(9, 0), priority, status, List.of(tag),
+                "task-detail/x.md", RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.of(2026, 6, 1, 8, 0));
+    }
+}
@@ -3,8 +3,12 @@ package com.tasknotifier.application;
 import com.tasknotifier.domain.*;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -23,4 +27,45 @@ class TaskFilterTest {
         assertEquals(1, result.size());
         assertEquals("Alpha", result.get(0).getTitle());
     }
+
+    @Test
+    void parallelAndTopKPathsReturnTheStableSequentialOrder() {
+        // Few distinct times and titles, so most comparisons are ties.
+        LocalDateTime base = LocalDateTime.of(2026, 6, 1, 9, 0);
+        Random random = new Random(3);
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            tasks.add(new Task(id, "Task " + random.nextInt(20), "", random.nextInt(6) == 0 ? null : base.plusHours(random.nextInt(30)),
+                    Priority.values()[random.nextInt(3)], TaskStatus.values()[random.nextInt(4)], List.of(), "task-detail/" + id + ".md",
+                    RecurrenceRule.none(), ReminderSettings.defaults(), base.minusMinutes(random.nextInt(10))));
+        }
+        TaskFilter parallel = new TaskFilter(Clock.systemDefaultZone(), 0);
+        for (TaskQuery.Sort sort : TaskQuery.Sort.values()) {
+            for (int[] page : new int[][]{{0, 0}, {0, 10}, {25, 50}, {0, 4_000}, {4_990, 20}, {6_000, 10}}) {
+                TaskQuery query = TaskQuery.builder().status(TaskStatus.TODO).sort(sort).limit(page[1]).offset(page[0]).build();
+                List<Task> expected = stableSequential(tasks, query);
+                assertEquals(expected, filter.filter(tasks, query), query.toString());
+                assertEquals(expected, parallel.filter(tasks, query), query.toString());
+            }
+        }
+    }
+
+    // The comparators TaskFilter sorted with before it precomputed keys, with the id tie-break it shares with SQL.
+    private static List<Task> stableSequential(List<Task> tasks, TaskQuery query) {
+        Comparator<Task> updatedDesc = Comparator.comparing(Task::getUpdatedAt).reversed();
+        Comparator<Task> order = switch (query.sort()) {
+            case DUE_DESC, RELEVANCE -> Comparator.comparing(Task::getDueDateTime, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(Task::getUpdatedAt).reversed();
+            case DUE_ASC -> Comparator.comparing(Task::getDueDateTime, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(updatedDesc);
+            case UPDATED_DESC -> updatedDesc;
+            case TITLE -> Comparator.comparing(Task::getTitle, String.CASE_INSENSITIVE_ORDER).thenComparing(updatedDesc);
+        };
+        return tasks.stream()
+                .filter(t -> t.getStatus() == query.status())
+                .sorted(order.thenComparing(Task::getId, Comparator.reverseOrder()))
+                .skip(query.offset())
+                .limit(query.limit() == 0 ? Long.MAX_VALUE : query.limit())
+                .toList();
+    }
 }
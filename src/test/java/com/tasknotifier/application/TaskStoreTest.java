@@ -0,0 +1,49 @@
+package com.tasknotifier.application;
+
+import com.tasknotifier.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskStoreTest {
+
+    @Test
+    void publishesTypedEventsAndIsolatesSnapshots() {
+        InMemoryTaskRepository repo = new InMemoryTaskRepository();
+        repo.save(task("Existing", List.of("home")));
+        TaskStore store = new TaskStore(repo);
+        List<TaskChangeEvent> events = new ArrayList<>();
+        store.addChangeListener(events::add);
+
+        Task created = store.save(task("Report", List.of("work")));
+        assertEquals(TaskChangeEvent.Type.CREATED, events.get(0).type());
+        assertEquals(2, store.size());
+
+        created.setStatus(TaskStatus.IN_PROGRESS);
+        assertEquals(TaskStatus.TODO, store.findById(created.getId()).orElseThrow().getStatus());
+        store.save(created);
+        TaskChangeEvent updated = events.get(1);
+        assertEquals(TaskChangeEvent.Type.UPDATED, updated.type());
+        assertEquals(TaskStatus.TODO, updated.before().getStatus());
+        assertEquals(TaskStatus.IN_PROGRESS, updated.after().getStatus());
+
+        store.updateStatusAll(List.of(created.getId()), TaskStatus.DONE, LocalDateTime.now());
+        assertEquals(TaskStatus.DONE, events.get(2).after().getStatus());
+        assertEquals(1, store.query(TaskQuery.builder().status(TaskStatus.DONE).build()).size());
+        assertEquals(java.util.Map.of("home", 1L, "work", 1L), store.tagCounts());
+
+        store.deleteById(created.getId());
+        assertEquals(TaskChangeEvent.Type.DELETED, events.get(3).type());
+        assertEquals(created.getId(), events.get(3).taskId());
+        assertEquals(List.of("Existing"), store.findAll().stream().map(Task::getTitle).toList());
+    }
+
+    private static Task task(String title, List<String> tags) {
+        return new Task(null, title, "", LocalDateTime.now(), Priority.LOW, TaskStatus.TODO, tags, "task-detail/" + title + ".md",
+                RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,46 @@
+package com.tasknotifier.application;
+
+import java.time.*;
+
+/** A clock that only moves when told to. Local times are read in the clock's zone. */
+class VirtualClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile Instant now;
+
+    VirtualClock(LocalDateTime start) {
+        this(start.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    }
+
+    VirtualClock(Instant start, ZoneId zone) {
+        this.now = start;
+        this.zone = zone;
+    }
+
+    void set(Instant instant) {
+        now = instant;
+    }
+
+    void set(LocalDateTime local) {
+        now = local.atZone(zone).toInstant();
+    }
+
+    void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new VirtualClock(now, zone);
+    }
+}
@@ -5,9 +5,15 @@ import org.junit.jupiter.api.Test;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DatabaseManagerTest {
@@ -28,4 +34,80 @@ class DatabaseManagerTest {
             assertTrue(rs.next(), "tasks table should exist after migration");
         }
     }
+
+    @Test
+    void readersSeeCommittedDataWhileWriterHoldsTransaction() throws Exception {
+        DatabaseManager manager = new DatabaseManager(Files.createTempFile("tasknotifier-wal", ".db"));
+        manager.migrate();
+
+        String journalMode = manager.read(session -> {
+            try (ResultSet rs = session.prepare("PRAGMA journal_mode").executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        });
+        assertEquals("wal", journalMode);
+
+        CompletableFuture<Integer> concurrentRead = new CompletableFuture<>();
+        manager.write(session -> {
+            session.prepare("INSERT INTO settings(key, value) VALUES ('k', 'v')").executeUpdate();
+            CompletableFuture.supplyAsync(() -> countSettings(manager)).thenAccept(concurrentRead::complete).join();
+            return null;
+        });
+        int countDuringWrite = concurrentRead.get(5, TimeUnit.SECONDS);
+        assertEquals(0, countDuringWrite);
+        assertEquals(1, countSettings(manager));
+        manager.close();
+    }
+
+    @Test
+    void closesStatementsEvictedFromTheCache() throws Exception {
+        DatabaseManager manager = new DatabaseManager(Files.createTempFile("tasknotifier-statements", ".db"));
+        manager.migrate();
+        manager.write(session -> {
+            PreparedStatement first = session.prepare("SELECT 0");
+            for (int i = 1; i <= 100; i++) session.prepare("SELECT " + i);
+            assertTrue(first.isClosed());
+            assertFalse(session.prepare("SELECT 100").isClosed());
+            return null;
+        });
+        manager.close();
+    }
+
+    @Test
+    void migratesPipeJoinedTagsIntoTagTables() throws Exception {
+        Path dbPath = Files.createTempFile("tasknotifier-legacy", ".db");
+        try (Connection conn = new DatabaseManager(dbPath).connection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE TABLE schema_version(version INTEGER PRIMARY KEY)");
+            st.executeUpdate("INSERT INTO schema_version(version) VALUES (1)");
+            st.executeUpdate("""
+                CREATE TABLE tasks (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT NOT NULL, summary TEXT, due_date_time TEXT,
+                priority TEXT NOT NULL, status TEXT NOT NULL, tags TEXT, markdown_path TEXT NOT NULL, recurrence_type TEXT NOT NULL,
+                recurrence_end_date TEXT, recurrence_skipped_dates TEXT, reminder_enabled INTEGER NOT NULL,
+                reminder_minutes_before_due INTEGER NOT NULL, reminder_overdue_repeat INTEGER NOT NULL,
+                reminder_sound_enabled INTEGER NOT NULL, updated_at TEXT NOT NULL)
+                """);
+            st.executeUpdate("""
+                INSERT INTO tasks(title, summary, priority, status, tags, markdown_path, recurrence_type, reminder_enabled,
+                reminder_minutes_before_due, reminder_overdue_repeat, reminder_sound_enabled, updated_at)
+                VALUES ('Legacy', '', 'LOW', 'TODO', 'work|Home', 'a.md', 'NONE', 1, 30, 60, 0, '2026-01-01T09:00')
+                """);
+        }
+
+        DatabaseManager manager = new DatabaseManager(dbPath);
+        manager.migrate();
+        manager.migrate();
+
+        assertEquals(List.of("work", "Home"), new SQLiteTaskRepository(manager).findAll().get(0).getTags());
+        manager.close();
+    }
+
+    private static int countSettings(DatabaseManager manager) {
+        return manager.read(session -> {
+            try (ResultSet rs = session.prepare("SELECT COUNT(*) FROM settings").executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        });
+    }
 }
@@ -0,0 +1,31 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JmxMetricsExporterTest {
+
+    @Test
+    void exposesTimersAndCountersAsMBeans() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test.sent").add(2);
+        JmxMetricsExporter exporter = new JmxMetricsExporter(registry);
+        exporter.start();
+        registry.timer("test.save").record(4_000_000);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(2L, server.getAttribute(JmxMetricsExporter.objectName("Counter", "test.sent"), "Count"));
+            assertEquals(1L, server.getAttribute(JmxMetricsExporter.objectName("Timer", "test.save"), "Count"));
+            assertEquals(4.0, (Double) server.getAttribute(JmxMetricsExporter.objectName("Timer", "test.save"), "MaxMillis"), 0.001);
+        } finally {
+            exporter.stop();
+        }
+        assertFalse(server.isRegistered(JmxMetricsExporter.objectName("Timer", "test.save")));
+    }
+}
@@ -0,0 +1,54 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownFileIndexTest {
+
+    @Test
+    void flagsMissingFilesAndSuggestsRelinkByContent() throws Exception {
+        Path root = Files.createTempDirectory("tasknotifier-watch");
+        Path note = Files.writeString(root.resolve("plan.md"), "# Plan\nship it");
+        Task task = new Task(7L, "Plan", "", LocalDateTime.now(), Priority.LOW, TaskStatus.TODO, List.of(),
+                note.toString(), RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.now());
+        MarkdownFileIndex index = new MarkdownFileIndex(root);
+        LinkedBlockingQueue<Set<Long>> changes = new LinkedBlockingQueue<>();
+        index.addChangeListener(changes::add);
+        index.start(List.of(task));
+        try {
+            index.flush();
+            assertFalse(index.isMissing(note.toString()));
+            assertEquals(14, index.state(note.toString()).orElseThrow().size());
+
+            Files.writeString(note, "# Plan\nship it today");
+            assertEquals(Set.of(7L), changes.poll(10, TimeUnit.SECONDS));
+            waitUntil(() -> index.state(note.toString()).orElseThrow().size() == 20);
+
+            Path moved = Files.move(note, root.resolve("archive-plan.md"));
+            waitUntil(() -> index.relinkSuggestion(note.toString()).isPresent());
+            assertTrue(index.isMissing(note.toString()));
+            assertEquals(Optional.of(moved.toAbsolutePath().normalize()), index.relinkSuggestion(note.toString()));
+        } finally {
+            index.stop();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Timed out waiting for file index");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tasknotifier.infrastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownPreviewCacheTest {
+
+    @Test
+    void readsBoundedPrefixAndRevalidatesByModificationTime() throws Exception {
+        Path root = Files.createTempDirectory("tasknotifier-preview");
+        MarkdownPreviewCache cache = new MarkdownPreviewCache(2);
+        Path note = Files.writeString(root.resolve("note.md"), "# Plan\nfirst draft");
+
+        assertEquals("# Plan\nfirst draft", cache.preview(note.toString()));
+        Files.writeString(note, "# Plan\nsecond draft");
+        Files.setLastModifiedTime(note, FileTime.fromMillis(Files.getLastModifiedTime(note).toMillis() + 5000));
+        assertEquals("# Plan\nsecond draft", cache.preview(note.toString()));
+
+        Path large = Files.writeString(root.resolve("large.md"), "é".repeat(10_000));
+        String preview = cache.preview(large.toString());
+        assertTrue(preview.endsWith("\n\n..."));
+        assertEquals("é".repeat(MarkdownPreviewCache.MAX_PREVIEW_BYTES / 2), preview.substring(0, preview.length() - 5));
+
+        cache.preview(Files.writeString(root.resolve("empty.md"), " ").toString());
+        assertEquals(2, cache.size());
+        assertTrue(cache.preview(root.resolve("missing.md").toString()).startsWith("File not found"));
+    }
+}
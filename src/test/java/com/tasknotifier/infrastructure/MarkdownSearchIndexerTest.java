@@ -0,0 +1,43 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.TaskQuery;
+import com.tasknotifier.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MarkdownSearchIndexerTest {
+
+    @Test
+    void searchesMarkdownBodiesWithPrefixQueries() throws Exception {
+        Path root = Files.createTempDirectory("tasknotifier-fts");
+        DatabaseManager db = new DatabaseManager(root.resolve("tasknotifier.db"));
+        db.migrate();
+        SQLiteTaskRepository repo = new SQLiteTaskRepository(db);
+        MarkdownSearchIndexer indexer = new MarkdownSearchIndexer(db);
+        Path note = Files.writeString(root.resolve("upgrade.md"), "# Notes\nKubernetes upgrade checklist");
+
+        Task upgrade = repo.save(new Task(null, "Cluster work", "", LocalDateTime.now(), Priority.LOW, TaskStatus.TODO,
+                List.of("ops"), note.toString(), RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.now()));
+        Task other = repo.save(new Task(null, "Kubectl cheatsheet", "", LocalDateTime.now(), Priority.LOW, TaskStatus.TODO,
+                List.of(), root.resolve("missing.md").toString(), RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.now()));
+
+        assertEquals(2, indexer.reindexStale());
+        assertEquals(0, indexer.reindexStale());
+        assertEquals(List.of(upgrade.getId()), ids(repo.query(TaskQuery.builder().text("kubern chec").build())));
+        assertEquals(2, repo.query(TaskQuery.builder().text("kube").sort(TaskQuery.Sort.RELEVANCE).build()).size());
+        assertEquals(List.of(upgrade.getId()), ids(repo.query(TaskQuery.builder().text("ops").build())));
+
+        repo.deleteById(other.getId());
+        assertEquals(List.of(upgrade.getId()), ids(repo.query(TaskQuery.builder().text("kube").build())));
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
@@ -0,0 +1,47 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.OccurrenceRepository.Occurrence;
+import com.tasknotifier.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLiteOccurrenceRepositoryTest {
+
+    @Test
+    void replacesRowsPerTaskAndScansDateRanges() throws Exception {
+        Path dbPath = Files.createTempFile("tasknotifier-occurrences", ".db");
+        DatabaseManager db = new DatabaseManager(dbPath);
+        db.migrate();
+        SQLiteTaskRepository tasks = new SQLiteTaskRepository(db);
+        SQLiteOccurrenceRepository occurrences = new SQLiteOccurrenceRepository(db);
+        long first = tasks.save(task("Standup")).getId();
+        long second = tasks.save(task("Review")).getId();
+        LocalDateTime monday = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+        occurrences.replaceAll(Map.of(
+                first, List.of(monday, monday.plusDays(1), monday.plusDays(2)),
+                second, List.of(monday.plusDays(7))));
+        assertEquals(List.of(new Occurrence(first, monday.plusDays(1)), new Occurrence(first, monday.plusDays(2))),
+                occurrences.findBetween(LocalDate.of(2026, 3, 3), LocalDate.of(2026, 3, 8)));
+
+        occurrences.replace(Map.of(first, List.of(monday.plusDays(8)), second, List.of()));
+        assertEquals(List.of(new Occurrence(first, monday.plusDays(8))),
+                occurrences.findBetween(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)));
+
+        tasks.deleteById(first);
+        assertTrue(occurrences.findBetween(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31)).isEmpty());
+    }
+
+    private static Task task(String title) {
+        return new Task(null, title, "", LocalDateTime.of(2026, 3, 2, 9, 0), Priority.MEDIUM, TaskStatus.TODO, List.of(),
+                "task-detail/" + title + ".md", RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,35 @@
+package com.tasknotifier.infrastructure;
+
+import com.tasknotifier.application.ReminderLedger;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLiteReminderLedgerTest {
+
+    @Test
+    void upsertsAndEvictsEntries() throws Exception {
+        Path dbPath = Files.createTempFile("tasknotifier-ledger", ".db");
+        DatabaseManager db = new DatabaseManager(dbPath);
+        db.migrate();
+        SQLiteReminderLedger ledger = new SQLiteReminderLedger(db);
+        LocalDateTime first = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+        ledger.recordAll(List.of(
+                new ReminderLedger.Entry(1, ReminderLedger.Kind.BEFORE_DUE, first),
+                new ReminderLedger.Entry(1, ReminderLedger.Kind.OVERDUE, first),
+                new ReminderLedger.Entry(2, ReminderLedger.Kind.OVERDUE, first)));
+        ledger.recordAll(List.of(new ReminderLedger.Entry(1, ReminderLedger.Kind.OVERDUE, first.plusHours(1))));
+
+        assertEquals(3, ledger.findAll().size());
+        assertTrue(ledger.findAll().contains(new ReminderLedger.Entry(1, ReminderLedger.Kind.OVERDUE, first.plusHours(1))));
+
+        ledger.evict(1);
+        assertEquals(List.of(new ReminderLedger.Entry(2, ReminderLedger.Kind.OVERDUE, first)), ledger.findAll());
+    }
+}
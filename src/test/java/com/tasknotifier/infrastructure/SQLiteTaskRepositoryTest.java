@@ -1,12 +1,18 @@
 package com.tasknotifier.infrastructure;
 
+import com.tasknotifier.application.TaskFilter;
+import com.tasknotifier.application.TaskQuery;
+import com.tasknotifier.application.TaskStore;
 import com.tasknotifier.domain.*;
 import org.junit.jupiter.api.Test;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,4 +33,124 @@ class SQLiteTaskRepositoryTest {
         repo.deleteById(saved.getId());
         assertTrue(repo.findAll().isEmpty());
     }
+
+    @Test
+    void queryMatchesReferenceFilter() throws Exception {
+        Path dbPath = Files.createTempFile("tasknotifier-query", ".db");
+        DatabaseManager db = new DatabaseManager(dbPath);
+        db.migrate();
+        SQLiteTaskRepository repo = new SQLiteTaskRepository(db);
+        LocalDateTime base = LocalDate.now().atTime(9, 0);
+        String[][] tags = {{"work"}, {"home", "Errand"}, {}, {"work", "urgent"}};
+        for (int i = 0; i < 24; i++) {
+            LocalDateTime due = i % 5 == 0 ? null : base.plusDays(i % 11 - 4).plusMinutes(i);
+            repo.save(new Task(null, "Task " + (char) ('A' + i), i % 3 == 0 ? "write report" : "call 100% back", due,
+                    Priority.values()[i % 3], TaskStatus.values()[i % 4], List.of(tags[i % 4]), "task-detail/q" + i + ".md",
+                    RecurrenceRule.none(), ReminderSettings.defaults(), base.minusHours(i % 4)));
+        }
+
+        TaskFilter filter = new TaskFilter();
+        List<Task> all = repo.findAll();
+        List<TaskQuery> queries = List.of(
+                TaskQuery.all(),
+                filter.toQuery(null, TaskStatus.TODO, null, TaskFilter.DueRange.ALL, null),
+                filter.toQuery("REPORT", null, Priority.LOW, TaskFilter.DueRange.THIS_WEEK, null),
+                filter.toQuery("100%", null, null, TaskFilter.DueRange.OVERDUE, "errand"),
+                filter.toQuery(null, null, null, TaskFilter.DueRange.TODAY, "work"),
+                TaskQuery.builder().sort(TaskQuery.Sort.DUE_ASC).limit(5).offset(3).build(),
+                TaskQuery.builder().sort(TaskQuery.Sort.TITLE).priority(Priority.HIGH).build(),
+                TaskQuery.builder().sort(TaskQuery.Sort.UPDATED_DESC).offset(20).build(),
+                TaskQuery.builder().text("report").ids(Set.of(all.get(0).getId(), all.get(3).getId(), all.get(4).getId())).build(),
+                filter.toQuery(null, null, null, TaskFilter.DueRange.TODAY, null).toBuilder()
+                        .occurringIds(Set.of(all.get(1).getId(), all.get(2).getId())).build(),
+                TaskQuery.builder().text("tag:work priority:high due:<7d status:todo").build(),
+                TaskQuery.builder().text("tag:WORK -priority:low due:<=3d").sort(TaskQuery.Sort.DUE_ASC).build(),
+                TaskQuery.builder().text("\"write report\" -tag:urgent").build(),
+                TaskQuery.builder().text("-status:done due:>=-2d -\"100%\"").build(),
+                TaskQuery.builder().text("call tag:\"errand\" -due:today status:in-progress").build(),
+                TaskQuery.builder().text("due:>1d -\"task b\"").status(TaskStatus.TODO).build());
+
+        for (TaskQuery query : queries) {
+            assertEquals(ids(filter.filter(all, query)), ids(repo.query(query)), query.toString());
+        }
+    }
+
+    @Test
+    void countsRenamesAndMergesTags() throws Exception {
+        DatabaseManager db = new DatabaseManager(Files.createTempFile("tasknotifier-tags", ".db"));
+        db.migrate();
+        SQLiteTaskRepository repo = new SQLiteTaskRepository(db);
+        Task a = repo.save(task("A", List.of("work", "urgent")));
+        Task b = repo.save(task("B", List.of("Job")));
+        repo.save(task("C", List.of("work")));
+
+        assertEquals(Map.of("work", 2L, "urgent", 1L, "Job", 1L), repo.tagCounts());
+        assertEquals(List.of("work", "urgent"), repo.findById(a.getId()).orElseThrow().getTags());
+
+        assertEquals(1, repo.renameTag("job", "career"));
+        assertEquals(List.of("career"), repo.findById(b.getId()).orElseThrow().getTags());
+        assertEquals(1, repo.query(TaskQuery.builder().text("caree").build()).size());
+
+        assertEquals(2, repo.renameTag("work", "Career"));
+        assertEquals(Map.of("career", 3L, "urgent", 1L), repo.tagCounts());
+        assertEquals(3, repo.query(TaskQuery.builder().tag("CAREER").build()).size());
+        assertEquals(0, repo.query(TaskQuery.builder().text("work").build()).size());
+    }
+
+    @Test
+    void batchesSavesStatusUpdatesAndDeletes() throws Exception {
+        DatabaseManager db = new DatabaseManager(Files.createTempFile("tasknotifier-batch", ".db"));
+        db.migrate();
+        SQLiteTaskRepository repo = new SQLiteTaskRepository(db);
+        List<Task> imported = new java.util.ArrayList<>();
+        for (int i = 0; i < 50; i++) imported.add(task("Imported " + i, List.of("import", "batch")));
+
+        repo.saveAll(imported);
+        assertTrue(imported.stream().allMatch(t -> t.getId() != null));
+        assertEquals(50, repo.query(TaskQuery.builder().tag("batch").build()).size());
+
+        List<Long> ids = imported.stream().map(Task::getId).toList();
+        LocalDateTime completedAt = LocalDateTime.of(2026, 3, 1, 12, 0);
+        assertEquals(20, repo.updateStatusAll(ids.subList(0, 20), TaskStatus.DONE, completedAt));
+        assertEquals(20, repo.query(TaskQuery.builder().status(TaskStatus.DONE).build()).size());
+        assertEquals(completedAt, repo.findById(ids.get(0)).orElseThrow().getUpdatedAt());
+
+        Task renamed = imported.get(30);
+        repo.saveAll(List.of(new Task(renamed.getId(), "Renamed", "", null, Priority.HIGH, TaskStatus.TODO, List.of("solo"),
+                renamed.getMarkdownPath(), RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.now())));
+        assertEquals(List.of("solo"), repo.findById(renamed.getId()).orElseThrow().getTags());
+
+        assertEquals(40, repo.deleteAllById(ids.subList(10, 50)));
+        assertEquals(10, repo.findAll().size());
+    }
+
+    @Test
+    void savedTasksCarryTagsAsStored() throws Exception {
+        DatabaseManager db = new DatabaseManager(Files.createTempFile("tasknotifier-tag-case", ".db"));
+        db.migrate();
+        TaskStore store = new TaskStore(new SQLiteTaskRepository(db));
+        store.save(task("A", List.of("Home")));
+        Task b = store.save(task("B", List.of(" home", "HOME", "errand", "")));
+
+        assertEquals(List.of("Home", "errand"), b.getTags());
+        assertEquals(List.of("Home", "errand"), store.findById(b.getId()).orElseThrow().getTags());
+        assertEquals(Map.of("Home", 2L, "errand", 1L), store.tagCounts());
+        assertEquals(new TaskStore(new SQLiteTaskRepository(db)).tagCounts(), store.tagCounts());
+        assertEquals(Map.of("Home", 2L, "errand", 1L), store.facets(TaskQuery.all()).byTag());
+
+        assertEquals(1, store.renameTag("ERRAND", "home"));
+        assertEquals(List.of("Home"), store.findById(b.getId()).orElseThrow().getTags());
+        store.save(task("C", List.of("work")));
+        assertEquals(List.of("Home", "work"), List.copyOf(store.tagCounts().keySet()));
+        assertEquals(List.copyOf(new SQLiteTaskRepository(db).tagCounts().entrySet()), List.copyOf(store.tagCounts().entrySet()));
+    }
+
+    private static Task task(String title, List<String> tags) {
+        return new Task(null, title, "", LocalDateTime.now(), Priority.LOW, TaskStatus.TODO, tags, "task-detail/" + title + ".md",
+                RecurrenceRule.none(), ReminderSettings.defaults(), LocalDateTime.now());
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
 }